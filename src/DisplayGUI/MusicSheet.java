@@ -11,8 +11,8 @@ import Music.Progression;
 
 import javax.swing.*;
 import java.awt.*;
-import java.util.ArrayList;
 import java.util.HashMap;
+import java.util.List;
 import java.util.Map;
 
 /**
@@ -71,12 +71,12 @@ public class MusicSheet extends JPanel {
     /**
      * The note at the top of the treble clef that determines position
      */
-    public static final Note trebleTop = new Note(N.E, 5, Accidental.NATURAL);
+    public static final Note trebleTop = Note.of(N.E, 5, Accidental.NATURAL);
 
     /**
      * The note at the top of the bass clef that determines position
      */
-    public static final Note bassTop = new Note(N.G, 3, Accidental.NATURAL);
+    public static final Note bassTop = Note.of(N.G, 3, Accidental.NATURAL);
 
     /**
      * Size of font for the accidentals
@@ -123,7 +123,7 @@ public class MusicSheet extends JPanel {
                 Map.entry(N.F, Accidental.NATURAL),
                 Map.entry(N.G, Accidental.NATURAL)
         );
-        ArrayList<Chord> chords = p.getChords();
+        List<Chord> chords = p.getChords();
         noteDist = (STAFFLENGTH - CLEFSPACE) / (chords.size());
         HashMap<N, Accidental> accidentalTracker = new HashMap<>();
         for (int i = 0; i < chords.size(); i++) {
@@ -287,8 +287,8 @@ public class MusicSheet extends JPanel {
      */
     public void drawLedgerLines(Note n, Staff s, int i, Graphics g) {
         if (s == Staff.TREBLE) {
-            int top = n.getInterval(new Note("A6")).getNoteDist();
-            int bot = n.getInterval(new Note("C4")).getNoteDist();
+            int top = n.getInterval(Note.of("A6")).getNoteDist();
+            int bot = n.getInterval(Note.of("C4")).getNoteDist();
             if (top <= 0) {
                 drawLedgerLines(s, Math.abs(top) / 2 + 1, true, i, g);
             } else if (bot >= 0) {
@@ -296,8 +296,8 @@ public class MusicSheet extends JPanel {
             }
         }
         if (s == Staff.BASS) {
-            int top = n.getInterval(new Note("C4")).getNoteDist();
-            int bot = n.getInterval(new Note("E2")).getNoteDist();
+            int top = n.getInterval(Note.of("C4")).getNoteDist();
+            int bot = n.getInterval(Note.of("E2")).getNoteDist();
             if (top <= 0) {
                 drawLedgerLines(s, Math.abs(top) / 2 + 1, true, i, g);
             } else if (bot >= 0) {
@@ -367,7 +367,7 @@ public class MusicSheet extends JPanel {
         } else {
             root = bassTop;
         }
-        Note blankNote = new Note(n.getNote(), n.getOctave(), Accidental.NATURAL);
+        Note blankNote = Note.of(n.getNote(), n.getOctave(), Accidental.NATURAL);
         int octaves = blankNote.compareTo(root) / 12;
         Interval distance = blankNote.getInterval(root);
 
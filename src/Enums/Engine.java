@@ -0,0 +1,11 @@
+package Enums;
+
+public enum Engine {
+    BACKTRACK,
+    LAYERED,
+    PARALLEL,
+    OPTIMAL,
+    BEAM,
+    RESTART,
+    PORTFOLIO
+}
@@ -0,0 +1,6 @@
+package Enums;
+
+public enum RestartSchedule {
+    LUBY,
+    GEOMETRIC
+}
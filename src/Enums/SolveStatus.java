@@ -0,0 +1,7 @@
+package Enums;
+
+public enum SolveStatus {
+    SOLVED,
+    UNSOLVABLE,
+    TIMED_OUT
+}
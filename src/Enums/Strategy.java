@@ -0,0 +1,7 @@
+package Enums;
+
+public enum Strategy {
+    SHUFFLED,
+    SMOOTH,
+    LAYERED
+}
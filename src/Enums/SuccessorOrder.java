@@ -0,0 +1,7 @@
+package Enums;
+
+public enum SuccessorOrder {
+    RANDOM,
+    ENUMERATION,
+    SMOOTH
+}
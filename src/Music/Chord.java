@@ -9,27 +9,27 @@ public class Chord {
     /**
      * Soprano note
      */
-    private Note soprano;
+    private final Note soprano;
 
     /**
      * Alto note
      */
-    private Note alto;
+    private final Note alto;
 
     /**
      * Tenor note
      */
-    private Note tenor;
+    private final Note tenor;
 
     /**
      * Bass note
      */
-    private Note bass;
+    private final Note bass;
 
     /**
      * Name of the chord in figured bass notation
      */
-    private String chordName;
+    private final String chordName;
 
     /**
      * Creates a new chord with the given notes
@@ -56,10 +56,10 @@ public class Chord {
      * @param chordName figured bass for the chord
      */
     public Chord(String bass, String tenor, String alto, String soprano, String chordName) {
-        this.soprano = new Note(soprano);
-        this.alto = new Note(alto);
-        this.tenor = new Note(tenor);
-        this.bass = new Note(bass);
+        this.soprano = Note.of(soprano);
+        this.alto = Note.of(alto);
+        this.tenor = Note.of(tenor);
+        this.bass = Note.of(bass);
         this.chordName = chordName;
     }
 
@@ -72,10 +72,10 @@ public class Chord {
      * @param chordName figured bass for the chord
      */
     public Chord(Note bass, String tenor, String alto, String soprano, String chordName) {
-        this.soprano = new Note(soprano);
-        this.alto = new Note(alto);
-        this.tenor = new Note(tenor);
-        this.bass = new Note(bass);
+        this.soprano = Note.of(soprano);
+        this.alto = Note.of(alto);
+        this.tenor = Note.of(tenor);
+        this.bass = bass;
         this.chordName = chordName;
     }
 
@@ -88,10 +88,10 @@ public class Chord {
      * @param chordName figured bass for the chord
      */
     public Chord(String bass, Note tenor, String alto, String soprano, String chordName) {
-        this.soprano = new Note(soprano);
-        this.alto = new Note(alto);
-        this.tenor = new Note(tenor);
-        this.bass = new Note(bass);
+        this.soprano = Note.of(soprano);
+        this.alto = Note.of(alto);
+        this.tenor = tenor;
+        this.bass = Note.of(bass);
         this.chordName = chordName;
     }
 
@@ -104,10 +104,10 @@ public class Chord {
      * @param chordName figured bass for the chord
      */
     public Chord(String bass, String tenor, Note alto, String soprano, String chordName) {
-        this.soprano = new Note(soprano);
-        this.alto = new Note(alto);
-        this.tenor = new Note(tenor);
-        this.bass = new Note(bass);
+        this.soprano = Note.of(soprano);
+        this.alto = alto;
+        this.tenor = Note.of(tenor);
+        this.bass = Note.of(bass);
         this.chordName = chordName;
     }
 
@@ -120,10 +120,10 @@ public class Chord {
      * @param chordName figured bass for the chord
      */
     public Chord(String bass, String tenor, String alto, Note soprano, String chordName) {
-        this.soprano = new Note(soprano);
-        this.alto = new Note(alto);
-        this.tenor = new Note(tenor);
-        this.bass = new Note(bass);
+        this.soprano = soprano;
+        this.alto = Note.of(alto);
+        this.tenor = Note.of(tenor);
+        this.bass = Note.of(bass);
         this.chordName = chordName;
     }
 
@@ -136,10 +136,10 @@ public class Chord {
      * @param chordName figured bass for the chord
      */
     public Chord(String bass, String tenor, Note alto, Note soprano, String chordName) {
-        this.soprano = new Note(soprano);
-        this.alto = new Note(alto);
-        this.tenor = new Note(tenor);
-        this.bass = new Note(bass);
+        this.soprano = soprano;
+        this.alto = alto;
+        this.tenor = Note.of(tenor);
+        this.bass = Note.of(bass);
         this.chordName = chordName;
     }
 
@@ -152,10 +152,10 @@ public class Chord {
      * @param chordName figured bass for the chord
      */
     public Chord(String bass, Note tenor, String alto, Note soprano, String chordName) {
-        this.soprano = new Note(soprano);
-        this.alto = new Note(alto);
-        this.tenor = new Note(tenor);
-        this.bass = new Note(bass);
+        this.soprano = soprano;
+        this.alto = Note.of(alto);
+        this.tenor = tenor;
+        this.bass = Note.of(bass);
         this.chordName = chordName;
     }
 
@@ -168,10 +168,10 @@ public class Chord {
      * @param chordName figured bass for the chord
      */
     public Chord(Note bass, String tenor, String alto, Note soprano, String chordName) {
-        this.soprano = new Note(soprano);
-        this.alto = new Note(alto);
-        this.tenor = new Note(tenor);
-        this.bass = new Note(bass);
+        this.soprano = soprano;
+        this.alto = Note.of(alto);
+        this.tenor = Note.of(tenor);
+        this.bass = bass;
         this.chordName = chordName;
     }
 
@@ -184,10 +184,10 @@ public class Chord {
      * @param chordName figured bass for the chord
      */
     public Chord(String bass, Note tenor, Note alto, String soprano, String chordName) {
-        this.soprano = new Note(soprano);
-        this.alto = new Note(alto);
-        this.tenor = new Note(tenor);
-        this.bass = new Note(bass);
+        this.soprano = Note.of(soprano);
+        this.alto = alto;
+        this.tenor = tenor;
+        this.bass = Note.of(bass);
         this.chordName = chordName;
     }
 
@@ -200,10 +200,10 @@ public class Chord {
      * @param chordName figured bass for the chord
      */
     public Chord(Note bass, String tenor, Note alto, String soprano, String chordName) {
-        this.soprano = new Note(soprano);
-        this.alto = new Note(alto);
-        this.tenor = new Note(tenor);
-        this.bass = new Note(bass);
+        this.soprano = Note.of(soprano);
+        this.alto = alto;
+        this.tenor = Note.of(tenor);
+        this.bass = bass;
         this.chordName = chordName;
     }
 
@@ -216,10 +216,10 @@ public class Chord {
      * @param chordName figured bass for the chord
      */
     public Chord(Note bass, Note tenor, String alto, String soprano, String chordName) {
-        this.soprano = new Note(soprano);
-        this.alto = new Note(alto);
-        this.tenor = new Note(tenor);
-        this.bass = new Note(bass);
+        this.soprano = Note.of(soprano);
+        this.alto = Note.of(alto);
+        this.tenor = tenor;
+        this.bass = bass;
         this.chordName = chordName;
     }
 
@@ -227,15 +227,15 @@ public class Chord {
     /*END OF SIMILAR CONSTRUCTORS*/
 
     /**
-     * Creates a deep copy of the given chord
-     * Creates copies of the notes in the chord as well
+     * Creates a copy of the given chord
+     * Notes are immutable so the copy shares them
      * @param c chord to copy
      */
     public Chord(Chord c) {
-        this.soprano = new Note(c.soprano);
-        this.alto = new Note(c.alto);
-        this.tenor = new Note(c.tenor);
-        this.bass = new Note(c.bass);
+        this.soprano = c.soprano;
+        this.alto = c.alto;
+        this.tenor = c.tenor;
+        this.bass = c.bass;
         this.chordName = c.chordName;
     }
 
@@ -276,19 +276,14 @@ public class Chord {
     }
 
     /**
-     * Transposes the entire chord up or down the interval given
-     * CHANGES THE VALUES IN THIS CHORD
-     * @param i interval to transpose
-     * @return the old version of the chord
-     * @postcond all the notes in the chord are transposed
+     * Packs all four voices into a single number
+     * Two chords with the same key have the same voicing
+     * The rule checks in VoicingRules run on this key
+     * @return the packed voicing of this chord
      */
-    public Chord transposeTo(Interval i) {
-        Chord oldChord = new Chord(this);
-        soprano.transposeTo(i);
-        alto.transposeTo(i);
-        tenor.transposeTo(i);
-        bass.transposeTo(i);
-        return oldChord;
+    public long getVoicingKey() {
+        return ((long) bass.getCode() << Voicing.BASS) | ((long) tenor.getCode() << Voicing.TENOR) |
+                ((long) alto.getCode() << Voicing.ALTO) | ((long) soprano.getCode() << Voicing.SOPRANO);
     }
 
     /**
@@ -296,11 +291,10 @@ public class Chord {
      * DOES NOT CHANGE THE VALUES IN THIS CHORD
      * @param i interval to transpose
      * @return the transposed version of the chord
+     * @throws MusicTheoryException if a note would need more than 2 accidentals
      */
     public Chord transpose(Interval i) {
-        Chord newChord = new Chord(this);
-        newChord.transposeTo(i);
-        return newChord;
+        return new Chord(bass.transpose(i), tenor.transpose(i), alto.transpose(i), soprano.transpose(i), chordName);
     }
 
     /**
@@ -12,13 +12,13 @@ public class Interval {
      * Distance alphabetically to the next note
      * Negative if the interval is downward
      */
-    private int noteDist;
+    private final int noteDist;
 
     /**
      * Distance halfstepwise to the next note
      * Negative if the interval is downward
      */
-    private int halfstepDist;
+    private final int halfstepDist;
 
     /**
      * Dictionary of music terminology mapped to the indicated interval
@@ -83,6 +83,27 @@ public class Interval {
             Map.entry("-A8", new Interval(-7, -13))
     );
 
+    /**
+     * Largest note and halfstep distances kept in the table of shared intervals
+     */
+    private static final int MAX_NOTE_DIST = 7;
+    private static final int MAX_HALFSTEP_DIST = 24;
+    private static final int HALFSTEP_SPAN = 2 * MAX_HALFSTEP_DIST + 1;
+
+    /**
+     * Shared intervals indexed by note distance then halfstep distance
+     */
+    private static final Interval[] shared = new Interval[(2 * MAX_NOTE_DIST + 1) * HALFSTEP_SPAN];
+
+    static {
+        for (int noteDist = -MAX_NOTE_DIST; noteDist <= MAX_NOTE_DIST; noteDist++) {
+            for (int halfstepDist = -MAX_HALFSTEP_DIST; halfstepDist <= MAX_HALFSTEP_DIST; halfstepDist++) {
+                shared[(noteDist + MAX_NOTE_DIST) * HALFSTEP_SPAN + halfstepDist + MAX_HALFSTEP_DIST] =
+                        new Interval(noteDist, halfstepDist);
+            }
+        }
+    }
+
     /**
      * Constructor for the Interval
      * Creates an interval with the values passed in
@@ -117,6 +138,20 @@ public class Interval {
         this.halfstepDist = i.halfstepDist;
     }
 
+    /**
+     * Returns a shared interval with the given values
+     * Intervals cannot change, so equal intervals can be the same object
+     * @param noteDist distance to the next note alphabetically
+     * @param halfstepDist distance in halfsteps
+     * @return the shared interval, or a new one if it is outside the table
+     */
+    public static Interval of(int noteDist, int halfstepDist) {
+        if (Math.abs(noteDist) > MAX_NOTE_DIST || Math.abs(halfstepDist) > MAX_HALFSTEP_DIST) {
+            return new Interval(noteDist, halfstepDist);
+        }
+        return shared[(noteDist + MAX_NOTE_DIST) * HALFSTEP_SPAN + halfstepDist + MAX_HALFSTEP_DIST];
+    }
+
     /**
      * @return note distance
      */
@@ -145,6 +180,15 @@ public class Interval {
         return false;
     }
 
+    /**
+     * Intervals that are equal have the same note and halfstep distance
+     * @return a hash of the note and halfstep distance
+     */
+    @Override
+    public int hashCode() {
+        return 31 * noteDist + halfstepDist;
+    }
+
     /**
      * Returns true if the interval is perfect
      * @return wheter or not the interval is perfect
@@ -4,34 +4,49 @@ import Enums.Accidental;
 import Enums.N;
 
 import java.util.*;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * The note storage class
  * Stores all the information about an individual note
+ * Notes are immutable and interned, so every note with the same
+ * name, accidental, octave and inflection is the same object
  */
 public class Note implements Comparable<Note> {
 
     /**
      * The note name (A, B, C, etc.)
      */
-    private N note;
+    private final N note;
 
     /**
      * What accidental is placed on the note (Sharp, Flat, Natural)
      */
-    private Accidental a;
+    private final Accidental a;
 
     /**
      * Which octave the note is in (A4, C3, etc.)
      */
-    private int octave;
+    private final int octave;
 
     /**
      * Which note this not has an inflection towards
      * if there is one.
      * Null if there is no inflection
      */
-    private Note inflection;
+    private final Note inflection;
+
+    /**
+     * Position of this note in the table of notes without inflections
+     * Notes with the same name, accidental and octave share an ordinal
+     */
+    private final int ordinal;
+
+    /**
+     * The note packed into 16 bits
+     * See Voicing for the layout
+     */
+    private final int code;
 
     /**
      * String representation of the different music symbols
@@ -47,30 +62,6 @@ public class Note implements Comparable<Note> {
 
 
 
-    /**
-     * Converts a note to the number of halfsteps from the letter A
-     */
-    private static final Map<N, Integer> noteMap = Map.of(
-            N.A, 0,
-            N.B, 2,
-            N.C, 3,
-            N.D, 5,
-            N.E, 7,
-            N.F, 8,
-            N.G, 10
-    );
-
-    /**
-     * Converts the accidental to a number of halfsteps from the natural note
-     */
-    private static final Map<Accidental, Integer> accidentalMap = Map.of(
-            Accidental.FLAT, -1,
-            Accidental.SHARP, 1,
-            Accidental.NATURAL, 0,
-            Accidental.DOUBLE_FLAT, -2,
-            Accidental.DOUBLE_SHARP, 2
-    );
-
     /**
      * Maps a note distance to an accidental
      */
@@ -108,94 +99,155 @@ public class Note implements Comparable<Note> {
             "f", Accidental.DOUBLE_FLAT
     );
 
+    /**
+     * The number of octaves in the table of notes
+     */
+    private static final int OCTAVES = 10;
+
+    /**
+     * The number of notes without inflections
+     */
+    private static final int NOTE_COUNT = N.values().length * Accidental.values().length * OCTAVES;
+
+    /**
+     * Every note without an inflection, indexed by ordinal
+     */
+    private static final Note[] notes = new Note[NOTE_COUNT];
+
+    /**
+     * Notes with an inflection, indexed by the ordinal of the note then the ordinal of the inflection
+     * Filled in the first time each note is asked for
+     */
+    private static final AtomicReferenceArray<Note> inflectedNotes = new AtomicReferenceArray<>(NOTE_COUNT * NOTE_COUNT);
+
+    /**
+     * The interval between every pair of notes, indexed by the ordinal of each note
+     */
+    private static final Interval[] intervals = new Interval[NOTE_COUNT * NOTE_COUNT];
+
+    static {
+        for (N n : N.values()) {
+            for (Accidental acc : Accidental.values()) {
+                for (int octave = 0; octave < OCTAVES; octave++) {
+                    int ordinal = ordinal(n, acc, octave);
+                    notes[ordinal] = new Note(n, octave, acc, null, ordinal);
+                }
+            }
+        }
+        for (Note from : notes) {
+            for (Note to : notes) {
+                int interval = Voicing.interval(from.code, to.code);
+                intervals[from.ordinal * NOTE_COUNT + to.ordinal] =
+                        Interval.of(Voicing.noteDist(interval), Voicing.halfsteps(interval));
+            }
+        }
+    }
+
     /**
      * Creates an instance of a note using the given values
+     * Only used to fill the tables of notes
      * @param note note name
      * @param octave the octave of the note
      * @param a the accidental
      * @param inflection the note this note wants to inflect towards
+     * @param ordinal position of the note in the table of notes
      */
-    public Note(N note, int octave, Accidental a, Note inflection) {
+    private Note(N note, int octave, Accidental a, Note inflection, int ordinal) {
         this.note = note;
         this.a = a;
         this.inflection = inflection;
         this.octave = octave;
+        this.ordinal = ordinal;
+        this.code = Voicing.pack(note, octave, a, inflection);
     }
 
     /**
-     * Constructor for note with no inflection
+     * Finds the position of a note in the table of notes
+     * @param note note name
+     * @param a the accidental
+     * @param octave the octave of the note
+     * @return the ordinal of the note
+     * @throws MusicTheoryException if the octave is outside the table
+     */
+    private static int ordinal(N note, Accidental a, int octave) {
+        if (octave < 0 || octave >= OCTAVES) {
+            throw new MusicTheoryException("Octave " + octave + " is out of range.");
+        }
+        return (note.ordinal() * Accidental.values().length + a.ordinal()) * OCTAVES + octave;
+    }
+
+    /**
+     * Returns the note with the given values
      * @param note note name
      * @param octave the octave of the note
      * @param a the accidental
+     * @param inflection the note this note wants to inflect towards, null if there is none
+     * @return the shared instance of the note
      */
-    public Note(N note, int octave, Accidental a) {
-        this.note = note;
-        this.a = a;
-        this.inflection = null;
-        this.octave = octave;
+    public static Note of(N note, int octave, Accidental a, Note inflection) {
+        Note plain = notes[ordinal(note, a, octave)];
+        if (inflection == null) {
+            return plain;
+        }
+        int index = plain.ordinal * NOTE_COUNT + inflection.ordinal;
+        Note inflected = inflectedNotes.get(index);
+        if (inflected == null) {
+            inflectedNotes.compareAndSet(index, null,
+                    new Note(note, octave, a, notes[inflection.ordinal], plain.ordinal));
+            inflected = inflectedNotes.get(index);
+        }
+        return inflected;
     }
+
     /**
-     * Copies another instance of a note object
-     * @param n other note to be copied
+     * Returns the note with no inflection
+     * @param note note name
+     * @param octave the octave of the note
+     * @param a the accidental
+     * @return the shared instance of the note
      */
-    public Note(Note n) {
-        this.note = n.note;
-        this.a = n.a;
-        this.octave = n.octave;
-        this.inflection = n.inflection;
+    public static Note of(N note, int octave, Accidental a) {
+        return notes[ordinal(note, a, octave)];
     }
 
     /**
-     * Constructor for note with a string note name
+     * Returns the note with a string note name
      * @param name note name in format
      *             "{Accidental}{Name}{Octave}" or
      *             "{Name}{Octave}" (assumed natural)
+     * @return the shared instance of the note
      */
-    public Note(String name) {
+    public static Note of(String name) {
         String note;
         String accident;
         String octave;
+        Accidental a;
         if (name.length() == 3) {
             accident = name.substring(0, 1);
             note = name.substring(1, 2);
             octave = name.substring(2, 3);
-            this.a = stringToAccidental.get(accident);
+            a = stringToAccidental.get(accident);
         } else {
             note = name.substring(0, 1);
             octave = name.substring(1, 2);
-            this.a = Accidental.NATURAL;
+            a = Accidental.NATURAL;
         }
-        this.note = stringToNote.get(note);
-        inflection = null;
-        this.octave = Integer.parseInt(octave);
+        return of(stringToNote.get(note), Integer.parseInt(octave), a);
     }
 
     /**
-     * Constructor for note with a string note name and inflection
+     * Returns the note with a string note name and inflection
      * @param name note name in format
      *             "{Accidental}{Name}{Octave}" or
      *             "{Name}{Octave}" (assumed natural)
      * @param inflection the note this note wants to inflect to
      *             "{Accidental}{Name}{Octave}" or
      *             "{Name}{Octave}" (assumed natural)
+     * @return the shared instance of the note
      */
-    public Note(String name, String inflection) {
-        String note;
-        String accident;
-        String octave;
-        if (name.length() == 3) {
-            accident = name.substring(0, 1);
-            note = name.substring(1, 2);
-            octave = name.substring(2, 3);
-            this.a = stringToAccidental.get(accident);
-        } else {
-            note = name.substring(0, 1);
-            octave = name.substring(1, 2);
-            this.a = Accidental.NATURAL;
-        }
-        this.note = stringToNote.get(note);
-        this.inflection = new Note(inflection);
-        this.octave = Integer.parseInt(octave);
+    public static Note of(String name, String inflection) {
+        Note n = of(name);
+        return of(n.note, n.octave, n.a, of(inflection));
     }
 
     /**
@@ -248,97 +300,49 @@ public class Note implements Comparable<Note> {
     }
 
     /**
-     * Transposes the current note up or down the interval given.
-     * CHANGES THIS VALUE OF NOTE
-     * Cannot transpose more than an octave or else it throws an error.
+     * Finds the note this would transpose to in the interval i
+     * DOES NOT CHANGE THIS VALUE OF NOTE
+     * Cannot transpose more than an octave or else it throws an error
      * If the current note cannot be transposed to the next note
-     * without the use of more than 2 accidentals, the program throws an error
+     *     without the use of more than 2 accidentals the program throws an error
      * @param i interval to the next note
-     * @return old vale of the note
+     * @return the note that is i away
      * @throws MusicTheoryException if user tries to transpose more than an octave or use more than 2 accidentals
-     * @postcond this note is transposed to the new note
      */
-    public Note transposeTo(Interval i) throws MusicTheoryException{
-        Note noteCopy = new Note(this);
+    public Note transpose(Interval i) throws MusicTheoryException{
         int index = scale.indexOf(this.note) + 7;
         int newNoteIndex = index + i.getNoteDist();
         if (i.getNoteDist() > 7) {
             throw new MusicTheoryException("Transpose is not able to transpose above an octave");
         }
+        int newOctave = octave;
         if (newNoteIndex < 7) {
-            this.octave--;
+            newOctave--;
         } else if (newNoteIndex > 13) {
-            this.octave++;
+            newOctave++;
         }
-        this.note = scale.get(newNoteIndex);
-        this.a = Accidental.NATURAL;
-        Interval i2 = noteCopy.getInterval(this);
+        N newNote = scale.get(newNoteIndex);
+        Interval i2 = this.getInterval(of(newNote, newOctave, Accidental.NATURAL));
         int dist = i.getHalfstepDist() - i2.getHalfstepDist();
-        this.a = intToAccidental.get(dist);
         if (Math.abs(dist) > 2) {
             throw new MusicTheoryException("Cannot go above two sharps or two flats.");
         }
+        Note newInflection = null;
         if (inflection != null) {
-            inflection.transposeTo(i);
+            newInflection = inflection.transpose(i);
         }
-        return noteCopy;
-    }
-
-    /**
-     * Finds the note this would transpose to in the interval i
-     * DOES NOT CHANGE THIS VALUE OF NOTE
-     * Cannot transpose more than an octave or else it throws an error
-     * If the current note cannot be transposed to the next note
-     *     without the use of more than 2 accidentals the program throws an error
-     * @param i interval to the next note
-     * @return the note that is i away
-     * @throws MusicTheoryException if user tries to transpose more than an octave or use more than 2 accidentals
-     */
-    public Note transpose(Interval i) throws MusicTheoryException{
-        Note noteCopy = new Note(this);
-        noteCopy.transposeTo(i);
-        return noteCopy;
+        return of(newNote, newOctave, intToAccidental.get(dist), newInflection);
     }
 
     /**
      * Returns the basic interval between this note and the next
      * Only does intervals up to and including an octave
+     * Looks the interval up in a table filled when the class loads
      * @param n the note to compare to
      * @return the interval between the two notes
      */
     public Interval getInterval(Note n) {
-        int halfsteps = this.compareTo(n);
-        int noteDist = 0;
-        if (halfsteps > 0) {
-            int index = scale.indexOf(this.note);
-            while (scale.get(index) != n.note) {
-                noteDist++;
-                index++;
-            }
-            //Allows for octave distancing
-            if (noteDist == 0 && this.octave < n.octave) {
-                noteDist += 7;
-            }
-        } else if (halfsteps < 0) {
-            int index = scale.indexOf(n.note);
-            while (scale.get(index) != this.note) {
-                noteDist--;
-                index++;
-            }
-            //Allows for octave distancing
-            if (noteDist == 0 && this.octave > n.octave) {
-                noteDist -= 7;
-            }
-        }
-        //Keeps the halfsteps within an octave
-        halfsteps = halfsteps % 12;
-        //Corrects the halfsteps to allow octave intervals
-        if (noteDist == -7 && !(halfsteps <= -8)) {
-            halfsteps -= 12;
-        } else if (noteDist == 7 && !(halfsteps >= 8)) {
-            halfsteps += 12;
-        }
-        return new Interval(noteDist, halfsteps);
+        return intervals[ordinal * NOTE_COUNT + n.ordinal];
     }
 
 
@@ -347,14 +351,14 @@ public class Note implements Comparable<Note> {
      * @return an integer value for the note
      */
     public int toInt() {
-        int val = 0;
-        // Assigns base value based on note name
-        val += noteMap.get(this.note);
-        // Adds octave
-        val += octave * 12;
-        // Adds/subtracts based on accidental
-        val += accidentalMap.get(this.a);
-        return val;
+        return Voicing.pitch(code);
+    }
+
+    /**
+     * @return the note packed into 16 bits
+     */
+    int getCode() {
+        return code;
     }
 
     /**
@@ -395,16 +399,22 @@ public class Note implements Comparable<Note> {
      */
     @Override
     public boolean equals(Object other) {
+        if (this == other) {
+            return true;
+        }
         if (other instanceof Note) {
-            Note n = (Note) other;
-            return this.a.equals(n.a) && this.note.equals(n.note) && this.octave == n.octave;
+            return this.ordinal == ((Note) other).ordinal;
         }
         return false;
     }
 
+    /**
+     * Notes that are equal share an ordinal
+     * @return the ordinal of the note
+     */
     @Override
     public int hashCode() {
-        return Objects.hash(note, a, octave);
+        return ordinal;
     }
 
     /**
@@ -1,6 +1,6 @@
 package Music;
 
-import Enums.Voice;
+import Enums.SuccessorOrder;
 
 import java.util.*;
 
@@ -10,57 +10,88 @@ import java.util.*;
 public class Progression {
 
     /**
-     * Array of chord names provided by the user
+     * The input, key and counters for the solve
+     * Shared by every progression built from the same start
      */
-    private static String[] input;
+    private final SolveContext context;
 
     /**
-     * The current chords in the progresson
-     * The chord at index i matches the chord in input
+     * The progression this one was built from
+     * Shared between every progression built from it
+     * Null for the starting progression
      */
-    private ArrayList<Chord> chords;
+    private final Progression parent;
+
+    /**
+     * The last chord in the progression
+     * The chord at depth i matches the chord at index i - 1 in the input
+     * Null for the starting progression
+     */
+    private final Chord chord;
+
+    /**
+     * How many chords are in the progression
+     */
+    private final int depth;
+
+    /**
+     * Index of the last chord in the voicings of its chord name
+     * -1 for the starting progression and for chords that were added by hand
+     */
+    private final int voicing;
 
     /**
      * Whether or not to randomize the output selection
      * Set to false for testing
      * When set to true, the final chord progression found can be different on each run
+     * Picks the default successor order of a solve
+     * The random order comes from the seed in the solve's context
      */
     public static final boolean RANDOM = true;
 
-    /**
-     * For purposes of debugging
-     * Figures out where the progression is having trouble
-     */
-    public static int furthestChord = 0;
-
     /**
      *Initial constructor for progression
      * Sets the input progression
      * @param input array of chords provided by the user
      */
     public Progression(String[] input) {
-        Key.transposeDatabase(new Note(input[0]));
-        Progression.input = new String[input.length - 1];
-        System.arraycopy(input, 1, Progression.input, 0, input.length - 1);
-        furthestChord = 0;
-        chords = new ArrayList<>();
+        this(new SolveContext(input));
     }
 
     /**
-     * Copy constructor
-     * Makes a deep copy of the progression then adds the next chord
-     * @param p progression to copy
+     * Constructor for the starting progression of a solve
+     * @param context the input, key and counters for the solve
+     */
+    public Progression(SolveContext context) {
+        this.context = context;
+        parent = null;
+        chord = null;
+        depth = 0;
+        voicing = -1;
+    }
+
+    /**
+     * Constructor for the next progression
+     * Shares every chord of the given progression then adds the next chord
+     * @param p progression to build on
      * @param next the next chord to add
      */
     public Progression(Progression p, Chord next) {
-        this.chords = new ArrayList<>();
-        for (Chord c : p.chords) {
-            this.chords.add(new Chord(c));
-        }
-        this.chords.add(new Chord(next));
-        if (chords.size() > furthestChord) {
-            furthestChord = chords.size();
-        }
+        this(p, next, -1);
+    }
+
+    /**
+     * Constructor for the next progression with a known voicing
+     * @param p progression to build on
+     * @param next the next chord to add
+     * @param voicing index of the chord in the voicings of its chord name
+     */
+    Progression(Progression p, Chord next, int voicing) {
+        this.context = p.context;
+        this.parent = p;
+        this.chord = next;
+        this.depth = p.depth + 1;
+        this.voicing = voicing;
     }
 
     /**
@@ -70,10 +101,10 @@ public class Progression {
      * @return whether or not the current progression is valid
      */
     public boolean isValid() {
-        if (chords.size() > 1) {
-            return checkFourPart(chords.getLast(), chords.get(chords.size() - 2));
-        } else if (chords.size() == 1) {
-            return checkFourPart(chords.getLast());
+        if (depth > 1) {
+            return checkFourPart(chord, parent.chord);
+        } else if (depth == 1) {
+            return checkFourPart(chord);
         } else {
             return true;
         }
@@ -86,12 +117,7 @@ public class Progression {
      * @return true if the harmonization is correct
      */
     public boolean checkFourPart(Chord cur, Chord prev) {
-        boolean voiceCrossing = checkVoiceCrossing(cur, prev);
-        boolean distancing = checkDistancing(cur);
-        boolean parallels = checkParallels(cur, prev);
-        boolean inflection = checkInflection(cur, prev);
-        boolean jumps = checkJumps(cur, prev);
-        return distancing && voiceCrossing && parallels && inflection && jumps;
+        return VoicingRules.checkFourPart(cur.getVoicingKey(), prev.getVoicingKey());
     }
 
     /**
@@ -100,7 +126,7 @@ public class Progression {
      * @return true if the four part is correct
      */
     public boolean checkFourPart(Chord cur) {
-        return checkDistancing(cur) && checkVoiceCrossing(cur, cur);
+        return VoicingRules.checkFourPart(cur.getVoicingKey());
     }
 
     /**
@@ -111,24 +137,7 @@ public class Progression {
      * @return true if there are no parallels
      */
     public boolean checkParallels(Chord cur, Chord prev) {
-        Interval soprano = prev.getSoprano().getInterval(cur.getSoprano());
-        Interval alto = prev.getAlto().getInterval(cur.getAlto());
-        Interval tenor = prev.getTenor().getInterval(cur.getTenor());
-        Interval bass = prev.getBass().getInterval(cur.getBass());
-        boolean hasSopAltoParallels = cur.getSoprano().getInterval(cur.getAlto()).isPerfect() &&
-                (soprano.equals(alto) && soprano.moved()) && !(prev.getSoprano().hasInflection() && prev.getAlto().hasInflection());
-        boolean hasSopTenorParallels = cur.getSoprano().getInterval(cur.getTenor()).isPerfect() &&
-                (soprano.equals(tenor) && soprano.moved()) && !(prev.getSoprano().hasInflection() && prev.getTenor().hasInflection());
-        boolean hasSopBassParallels = cur.getSoprano().getInterval(cur.getBass()).isPerfect() &&
-                (soprano.equals(bass) && soprano.moved())&& !(prev.getSoprano().hasInflection() && prev.getBass().hasInflection());
-        boolean hasAltoTenorParallels = cur.getAlto().getInterval(cur.getTenor()).isPerfect() &&
-                (alto.equals(tenor) && alto.moved()) && !(prev.getAlto().hasInflection() && prev.getTenor().hasInflection());
-        boolean hasAltoBassParallels = cur.getAlto().getInterval(cur.getBass()).isPerfect() &&
-                (alto.equals(bass) && alto.moved()) && !(prev.getAlto().hasInflection() && prev.getBass().hasInflection());
-        boolean hasTenorBassParallels = cur.getTenor().getInterval(cur.getBass()).isPerfect() &&
-                (tenor.equals(bass) && tenor.moved()) && !(prev.getTenor().hasInflection() && prev.getBass().hasInflection());
-        return !(hasSopAltoParallels || hasSopTenorParallels || hasSopBassParallels || hasAltoTenorParallels ||
-                hasAltoBassParallels || hasTenorBassParallels);
+        return VoicingRules.checkParallels(cur.getVoicingKey(), prev.getVoicingKey());
     }
 
     /**
@@ -138,10 +147,7 @@ public class Progression {
      * @return true if all the voices do not have too large of a jump
      */
     public boolean checkJumps(Chord cur, Chord prev) {
-        return Math.abs(cur.getSoprano().compareTo(prev.getSoprano())) <= 9 &&
-                Math.abs(cur.getAlto().compareTo(prev.getAlto())) <= 9 &&
-                Math.abs(cur.getTenor().compareTo(prev.getTenor())) <= 9 &&
-                Math.abs(cur.getBass().compareTo(prev.getBass())) <= 9;
+        return VoicingRules.checkJumps(cur.getVoicingKey(), prev.getVoicingKey());
     }
 
     /**
@@ -150,11 +156,7 @@ public class Progression {
      * @return true if the distancing is correct
      */
     public boolean checkDistancing(Chord cur) {
-        return cur.getBass().compareTo(cur.getTenor()) >= 0 &&
-                cur.getTenor().compareTo(cur.getAlto()) <= 12 &&
-                cur.getTenor().compareTo(cur.getAlto()) >= 0 &&
-                cur.getAlto().compareTo(cur.getSoprano()) <= 12 &&
-                cur.getAlto().compareTo(cur.getSoprano()) >= 0;
+        return VoicingRules.checkDistancing(cur.getVoicingKey());
     }
 
     /**
@@ -164,16 +166,7 @@ public class Progression {
      * @return true if there is no voice crossing
      */
     public boolean checkVoiceCrossing(Chord cur, Chord prev) {
-        boolean curChordWorks = cur.getAlto().compareTo(cur.getSoprano()) >= 0 &&
-                cur.getTenor().compareTo(cur.getAlto()) >= 0 &&
-                cur.getBass().compareTo(cur.getTenor()) >= 0;
-        boolean prevChordWorks = cur.getAlto().compareTo(prev.getSoprano()) >= 0 &&
-                cur.getTenor().compareTo(prev.getAlto()) >= 0 &&
-                cur.getBass().compareTo(prev.getTenor()) >= 0 &&
-                prev.getAlto().compareTo(cur.getSoprano()) >= 0 &&
-                prev.getTenor().compareTo(cur.getAlto()) >= 0 &&
-                prev.getBass().compareTo(cur.getTenor()) >= 0;
-        return curChordWorks && prevChordWorks;
+        return VoicingRules.checkVoiceCrossing(cur.getVoicingKey(), prev.getVoicingKey());
     }
 
     /**
@@ -183,110 +176,150 @@ public class Progression {
      * @return true if all the inflection is correct
      */
     public boolean checkInflection(Chord cur, Chord prev) {
-        boolean bassNotInflect = prev.getBass().hasInflection() &&
-                !(prev.getBass().isProperInflection(cur.getBass()));
-        boolean tenorNotInflect = prev.getTenor().hasInflection() &&
-                !(prev.getTenor().isProperInflection(cur.getTenor()));
-        boolean altoNotInflect = prev.getAlto().hasInflection() &&
-                !(prev.getAlto().isProperInflection(cur.getAlto()));
-        boolean sopranoNotInflect = prev.getSoprano().hasInflection() &&
-                !(prev.getSoprano().isProperInflection(cur.getSoprano()));
-        return !(bassNotInflect || tenorNotInflect || altoNotInflect || sopranoNotInflect);
-    }
-
-    /**
-     * Gets all the possible iterations of the next chord int eh progression
-     * @return a list of neighboring progressions
-     */
-    public ArrayList<Progression> getSuccessors() {
-        ArrayList<Progression> nbrs = new ArrayList<>();
-        Chord next = Key.getChord(input[chords.size()]);
-        ArrayList<Chord> possibilities = getIterations(next);
-        for (Chord possible : possibilities) {
-            nbrs.add(new Progression(this, possible));
-        }
-        if (RANDOM) {
-            Collections.shuffle(nbrs);
+        return VoicingRules.checkInflection(cur.getVoicingKey(), prev.getVoicingKey());
+    }
+
+    /**
+     * Checks if a chord can be added to the end of the progression
+     * Uses the same four part rules as isValid without building the longer progression
+     * @param next the chord to add
+     * @return true if the longer progression would be valid
+     */
+    public boolean canAdd(Chord next) {
+        if (chord == null) {
+            return checkFourPart(next);
         }
-        return nbrs;
+        return checkFourPart(next, chord);
     }
 
     /**
-     * Finds all the possible iterations of a generic chord
-     * Keeps the bass on the same note but shuffles the other voices around
-     * @param next the next generic chord
-     * @return a list of possible chords
+     * Gets the valid iterations of the next chord in the progression
+     * Only builds a progression for a voicing once it is asked for
+     * Shuffles them with the random stream of the solve
+     * @return the neighboring progressions
      */
-    public ArrayList<Chord> getIterations(Chord next) {
-        ArrayList<Chord> possibilities = new ArrayList<>();
-        possibilities.addAll(generatePossibleChords(next.getBass(), next.getTenor(), next.getAlto(), next.getSoprano(), next.getChordName()));
-        possibilities.addAll(generatePossibleChords(next.getBass(), next.getAlto(), next.getSoprano(), next.getTenor(), next.getChordName()));
-        possibilities.addAll(generatePossibleChords(next.getBass(), next.getSoprano(), next.getTenor(), next.getAlto(), next.getChordName()));
-        possibilities.addAll(generatePossibleChords(next.getBass(), next.getTenor(), next.getSoprano(), next.getAlto(), next.getChordName()));
-        possibilities.addAll(generatePossibleChords(next.getBass(), next.getAlto(), next.getTenor(), next.getSoprano(), next.getChordName()));
-        possibilities.addAll(generatePossibleChords(next.getBass(), next.getSoprano(), next.getAlto(), next.getTenor(), next.getChordName()));
-        return possibilities;
-    }
-
-    /**
-     * Generates all the iterations of the next chord with the voices in a given position
-     * @param bass the base note
-     * @param tenor the tenor note
-     * @param alto the alto note
-     * @param soprano the soprano note
-     * @param name chord name
-     * @return a list of possible chords with given notes for voices
-     */
-    public ArrayList<Chord> generatePossibleChords(Note bass, Note tenor, Note alto, Note soprano, String name) {
-        ArrayList<Chord> possible = new ArrayList<>();
-        if (!chords.isEmpty()) {
-            Note prevSoprano = chords.getLast().getSoprano();
-            Note prevAlto = chords.getLast().getAlto();
-            Note prevTenor = chords.getLast().getTenor();
-            Note prevBass = chords.getLast().getBass();
-            for (Note bassNote : getPossibleNotes(Voice.BASS, bass, Key.getLowRange(Voice.BASS), prevTenor)) {
-                for (Note tenorNote : getPossibleNotes(Voice.TENOR, tenor, prevBass, prevAlto)) {
-                    for (Note altoNote : getPossibleNotes(Voice.ALTO, alto, prevTenor, prevSoprano)) {
-                        for (Note sopranoNote : getPossibleNotes(Voice.SOPRANO, soprano, prevAlto, Key.getTopRange(Voice.SOPRANO))) {
-                            possible.add(new Chord(bassNote, tenorNote, altoNote, sopranoNote, name));
-                        }
-                    }
-                }
+    public Successors getSuccessors() {
+        return getSuccessors(context.getRandom());
+    }
+
+    /**
+     * Gets the valid iterations of the next chord in the progression
+     * Shuffles them with a given random stream, so searches on other threads can use their own
+     * @param random the random stream to shuffle with
+     * @return the neighboring progressions
+     */
+    public Successors getSuccessors(SplittableRandom random) {
+        int[] valid = getNextVoicings();
+        if (valid.length > 0) {
+            context.reachedChord(depth + 1);
+        }
+        VoicingSet voicings = getNextVoicingSet();
+        if (context.getOrder() == SuccessorOrder.RANDOM) {
+            shuffle(valid, random);
+        } else if (context.getOrder() == SuccessorOrder.SMOOTH) {
+            // Ties are broken at random only for a seeded solve, the first chord has nothing to move from
+            if (context.isSeeded()) {
+                shuffle(valid, random);
             }
-        } else {
-            for (Note bassNote : getPossibleNotes(Voice.BASS, bass, Key.getLowRange(Voice.BASS), Key.getTopRange(Voice.BASS))) {
-                for (Note tenorNote : getPossibleNotes(Voice.TENOR, tenor, Key.getLowRange(Voice.TENOR), Key.getTopRange(Voice.TENOR))) {
-                    for (Note altoNote : getPossibleNotes(Voice.ALTO, alto, Key.getLowRange(Voice.ALTO), Key.getTopRange(Voice.ALTO))) {
-                        for (Note sopranoNote : getPossibleNotes(Voice.SOPRANO, soprano, Key.getLowRange(Voice.SOPRANO), Key.getTopRange(Voice.SOPRANO))) {
-                            possible.add(new Chord(bassNote, tenorNote, altoNote, sopranoNote, name));
-                        }
-                    }
-                }
+            if (chord != null) {
+                sortByMotion(valid, voicings);
             }
         }
-        return possible;
+        return new Successors(this, voicings, valid, context.getStatistics());
     }
 
     /**
-     * Returns the possible notes in the correct octave that a voice can singe
-     * @param v the voice part
-     * @param n the note to place in the correct octave
-     * @param lowBound lower bound from previous chord
-     * @param highBound upper bound from previous chord
-     * @return a list of possible notes the voice can sing
+     * Sorts voicings by how far the voices move from the last chord, smallest first
+     * Keeps the order of voicings that move the same distance
+     * @param valid indexes of voicings
+     * @param voicings every voicing of the next chord
      */
-    public ArrayList<Note> getPossibleNotes(Voice v, Note n, Note lowBound, Note highBound) {
-        Note absLowBound = Key.getLowRange(v);
-        Note absUpBound = Key.getTopRange(v);
-        ArrayList<Note> possible = new ArrayList<>();
-        Note curNote = new Note(n.getNote(), absLowBound.getOctave() - 1, n.getAccidental(), n.getInflection());
-        while (curNote.compareTo(absUpBound) >= 0 && curNote.compareTo(highBound) >= 0) {
-            if (curNote.compareTo(lowBound) <= 0 && curNote.compareTo(absLowBound) <= 0) {
-                possible.add(curNote);
-            }
-            curNote = new Note(curNote.getNote(), curNote.getOctave() + 1, curNote.getAccidental(), curNote.getInflection());
+    private void sortByMotion(int[] valid, VoicingSet voicings) {
+        long last = chord.getVoicingKey();
+        long[] keys = new long[valid.length];
+        for (int i = 0; i < valid.length; i++) {
+            keys[i] = ((long) Voicing.motion(last, voicings.getPacked(valid[i])) << 32) | i;
+        }
+        Arrays.sort(keys);
+        int[] unsorted = valid.clone();
+        for (int i = 0; i < valid.length; i++) {
+            valid[i] = unsorted[(int) keys[i]];
+        }
+    }
+
+    /**
+     * Finds the voicings of the next chord that can follow the last chord
+     * Scans the transition table when the last chord's voicing is known,
+     * otherwise checks each voicing against the four part rules
+     * Leaves out voicings pruned from the solve's context
+     * @return the index of each valid voicing in the next chord's voicings, in generation order
+     */
+    public int[] getNextVoicings() {
+        String next = context.getChordName(depth);
+        if (voicing >= 0) {
+            return context.allowed(depth, TransitionTable.of(getKey(), context.getChordName(depth - 1), next).successors(voicing));
         }
-        return possible;
+        return context.allowed(depth, getNextVoicingSet().validAfter(chord));
+    }
+
+    /**
+     * @return every voicing of the next chord in the progression
+     */
+    public VoicingSet getNextVoicingSet() {
+        return getKey().getVoicings(context.getChordName(depth));
+    }
+
+    /**
+     * Adds a voicing of the next chord without checking the rules
+     * @param voicing index of a voicing from getNextVoicings
+     * @return the longer progression
+     */
+    public Progression extend(int voicing) {
+        return new Progression(this, getNextVoicingSet().get(voicing), voicing);
+    }
+
+    /**
+     * Builds the same progression in another context for the same input
+     * @param other the context to build in, such as a fork of this progression's context
+     * @return a progression with the same chords that belongs to the other context
+     */
+    public Progression copyTo(SolveContext other) {
+        Progression[] path = new Progression[depth];
+        Progression p = this;
+        for (int i = depth - 1; i >= 0; i--) {
+            path[i] = p;
+            p = p.parent;
+        }
+        Progression copy = new Progression(other);
+        for (Progression step : path) {
+            copy = new Progression(copy, step.chord, step.voicing);
+        }
+        return copy;
+    }
+
+    /**
+     * Shuffles the order voicings are tried in
+     * @param voicings indexes of voicings
+     * @param random the random stream to shuffle with
+     */
+    private static void shuffle(int[] voicings, SplittableRandom random) {
+        for (int i = voicings.length - 1; i > 0; i--) {
+            int j = random.nextInt(i + 1);
+            int swap = voicings[i];
+            voicings[i] = voicings[j];
+            voicings[j] = swap;
+        }
+    }
+
+    /**
+     * Finds all the possible iterations of a generic chord
+     * Keeps the bass on the same note but shuffles the other voices around
+     * Each voice stays between the neighbouring voices of the last chord
+     * @param next the next generic chord
+     * @return a list of possible chords
+     */
+    public ArrayList<Chord> getIterations(Chord next) {
+        return context.getKey().getVoicings(next).between(chord);
     }
 
     /**
@@ -294,18 +327,20 @@ public class Progression {
      * @return true if the progression is the final goal
      */
     public boolean isGoal() {
-        if (chords.size() == input.length) {
+        if (depth == context.length()) {
             return isValid();
         }
         return false;
     }
 
     /**
-     * Adds a chord to the progression
+     * Returns a new progression with a chord added to the end
      * FOR TESTING PURPOSES
+     * @param c the chord to add
+     * @return the longer progression
      */
-    public void addChord(Chord c) {
-        chords.add(c);
+    public Progression addChord(Chord c) {
+        return new Progression(this, c);
     }
 
     /**
@@ -313,7 +348,15 @@ public class Progression {
      * @return how many chords are in the progression
      */
     public int depth() {
-        return chords.size();
+        return depth;
+    }
+
+    /**
+     * Returns the number of chords the user asked for
+     * @return length of the input progression
+     */
+    public int length() {
+        return context.length();
     }
 
     /**
@@ -322,15 +365,44 @@ public class Progression {
      * @return the index of the problem chord
      */
     public int getFurthestChord() {
-        return furthestChord;
+        return context.getFurthestChord();
+    }
+
+    /**
+     * Returns the last chord in the progression
+     * @return the last chord, null if the progression is empty
+     */
+    public Chord getLastChord() {
+        return chord;
     }
 
     /**
      * Returns the entire chord progression
-     * @return a list of chords
+     * Walks back through the shared chords, so it takes time linear in the depth
+     * @return an unmodifiable list of chords
+     */
+    public List<Chord> getChords() {
+        Chord[] chords = new Chord[depth];
+        Progression p = this;
+        for (int i = depth - 1; i >= 0; i--) {
+            chords[i] = p.chord;
+            p = p.parent;
+        }
+        return Collections.unmodifiableList(Arrays.asList(chords));
+    }
+
+    /**
+     * @return the input, key and counters for the solve
+     */
+    public SolveContext getContext() {
+        return context;
+    }
+
+    /**
+     * @return the key the progression is in
      */
-    public ArrayList<Chord> getChords() {
-        return chords;
+    public Key getKey() {
+        return context.getKey();
     }
 
     /**
@@ -339,7 +411,7 @@ public class Progression {
      * @return the name of the chord
      */
     public String getChordName(int index) {
-        return input[index];
+        return context.getChordName(index);
     }
 
     /**
@@ -347,6 +419,7 @@ public class Progression {
      * @return chords in a vertical format with names underneath
      */
     public String toString() {
+        List<Chord> chords = getChords();
         String result = "Chord Progression:\n";
         for (Chord c : chords) {
             result += c.getSoprano().toString() + "      ";
@@ -364,8 +437,8 @@ public class Progression {
             result += c.getBass().toString() + "      ";
         }
         result = result.substring(0, result.length() - 6) + "\n";
-        for (int i = 0; i < input.length; i++) {
-            String name = input[i];
+        for (int i = 0; i < context.length(); i++) {
+            String name = context.getChordName(i);
             result += " " + name;
             for (int j = 0; j < 8 - name.length(); j++) {
                 result += " ";
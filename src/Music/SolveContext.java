@@ -0,0 +1,289 @@
+package Music;
+
+import Enums.SuccessorOrder;
+
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.Map;
+import java.util.SplittableRandom;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Everything a single solve needs besides the progressions themselves
+ * Owns the input, the key, the counters and how far the search has reached.
+ * Every progression built from the same start shares one context, and
+ * progressions from different starts share nothing, so any number of
+ * solves can run at once.
+ */
+public final class SolveContext {
+
+    /**
+     * Array of chord names provided by the user
+     */
+    private final String[] input;
+
+    /**
+     * The key the progression is in
+     */
+    private final Key key;
+
+    /**
+     * Counters for the solve
+     */
+    private final SolveStatistics statistics = new SolveStatistics();
+
+    /**
+     * The furthest progression when solving the progression
+     * Used for displaying the progression if there is an error
+     */
+    private final AtomicReference<Progression> furthestProgression = new AtomicReference<>();
+
+    /**
+     * For purposes of debugging
+     * The furthest chord index that had any valid voicings to try
+     */
+    private final AtomicInteger furthestChord = new AtomicInteger();
+
+    /**
+     * The voicings left at each chord index by a pre-pass, indexed like the input
+     * Null if the voicings have not been pruned, or for an index that was not pruned
+     */
+    private volatile long[][] domains;
+
+    /**
+     * The seed for the random order successors are tried in
+     * Picked at random unless it is set, and kept so the solve can be repeated
+     */
+    private volatile long seed = ThreadLocalRandom.current().nextLong();
+
+    /**
+     * Whether the seed was set rather than picked at random
+     * Smooth order only breaks ties at random for a seeded solve, so other solves stay repeatable
+     */
+    private volatile boolean seeded;
+
+    /**
+     * The random stream of the current solve, restarted from the seed by each solve
+     * Only used from one thread at a time. Parallel searches split their own streams from it.
+     */
+    private volatile SplittableRandom random = new SplittableRandom(seed);
+
+    /**
+     * The order the successors of each progression are tried in
+     */
+    private volatile SuccessorOrder order = Progression.RANDOM ? SuccessorOrder.RANDOM : SuccessorOrder.ENUMERATION;
+
+    /**
+     * Constructor for a context
+     * @param input array of chords provided by the user, starting with the key
+     */
+    public SolveContext(String[] input) {
+        this.key = Key.of(input[0]);
+        this.input = new String[input.length - 1];
+        System.arraycopy(input, 1, this.input, 0, input.length - 1);
+    }
+
+    /**
+     * Constructor for a context for another solve of the same input
+     * @param other the context to copy
+     */
+    private SolveContext(SolveContext other) {
+        this.key = other.key;
+        this.input = other.input;
+        this.domains = other.domains;
+        this.order = other.order;
+        this.seeded = other.seeded;
+        reseed(other.seed);
+    }
+
+    /**
+     * Starts a context for another solve of the same input, such as one racing this solve
+     * Keeps the key, pruned voicings, seed and order but has counters and progress of its own
+     * @return the new context
+     */
+    public SolveContext fork() {
+        return new SolveContext(this);
+    }
+
+    /**
+     * Clears the counters and furthest progress for a new solve
+     * @param begin starting progression
+     */
+    public void reset(Progression begin) {
+        random = new SplittableRandom(seed);
+        statistics.reset();
+        furthestProgression.set(begin);
+        furthestChord.set(begin.depth());
+    }
+
+    /**
+     * Records a progression the search reached
+     * Keeps it if it is longer than the furthest progression so far
+     * @param p a valid progression
+     */
+    public void reached(Progression p) {
+        Progression furthest = furthestProgression.get();
+        while ((furthest == null || p.depth() > furthest.depth()) &&
+                !furthestProgression.compareAndSet(furthest, p)) {
+            furthest = furthestProgression.get();
+        }
+    }
+
+    /**
+     * Records that a chord index had valid voicings to try
+     * @param index the chord index
+     */
+    void reachedChord(int index) {
+        furthestChord.accumulateAndGet(index, Math::max);
+    }
+
+    /**
+     * Limits the voicings tried at each chord index from a starting index on
+     * Bit v of a domain is set if voicing v of the chord may be tried
+     * @param first index of the chord the first domain belongs to
+     * @param pruned the voicings left at each chord index from the first on
+     */
+    public void restrict(int first, long[][] pruned) {
+        long[][] restricted = new long[input.length][];
+        System.arraycopy(pruned, 0, restricted, first, Math.min(pruned.length, input.length - first));
+        domains = restricted;
+    }
+
+    /**
+     * Leaves out voicings removed by a pre-pass
+     * @param index the chord index
+     * @param voicings the index of each voicing of the chord
+     * @return the voicings that may be tried, in the same order
+     */
+    int[] allowed(int index, int[] voicings) {
+        long[][] restricted = domains;
+        if (restricted == null || restricted[index] == null) {
+            return voicings;
+        }
+        long[] domain = restricted[index];
+        int[] allowed = new int[voicings.length];
+        int count = 0;
+        for (int v : voicings) {
+            if ((domain[v >>> 6] & (1L << v)) != 0) {
+                allowed[count++] = v;
+            }
+        }
+        return count == voicings.length ? voicings : Arrays.copyOf(allowed, count);
+    }
+
+    /**
+     * Sets the seed for the random order successors are tried in
+     * The same seed, key and input always give the same progression from a single threaded engine
+     * @param seed the seed
+     */
+    public void setSeed(long seed) {
+        reseed(seed);
+        seeded = true;
+    }
+
+    /**
+     * Restarts the random stream from another seed, such as for a restart of the same solve
+     * Keeps whether the solve was seeded
+     * @param seed the seed
+     */
+    public void reseed(long seed) {
+        this.seed = seed;
+        this.random = new SplittableRandom(seed);
+    }
+
+    /**
+     * @return true if the seed was set rather than picked at random
+     */
+    public boolean isSeeded() {
+        return seeded;
+    }
+
+    /**
+     * @return the seed for the random order successors are tried in
+     */
+    public long getSeed() {
+        return seed;
+    }
+
+    /**
+     * @return the random stream of the current solve
+     */
+    public SplittableRandom getRandom() {
+        return random;
+    }
+
+    /**
+     * Sets the order the successors of each progression are tried in
+     * @param order the successor order
+     */
+    public void setOrder(SuccessorOrder order) {
+        this.order = order;
+    }
+
+    /**
+     * @return the order the successors of each progression are tried in
+     */
+    public SuccessorOrder getOrder() {
+        return order;
+    }
+
+    /**
+     * @return the key the progression is in
+     */
+    public Key getKey() {
+        return key;
+    }
+
+    /**
+     * Gets the chord name at index i
+     * @param index index of the chord
+     * @return the name of the chord
+     */
+    public String getChordName(int index) {
+        return input[index];
+    }
+
+    /**
+     * @return the number of chords the user asked for
+     */
+    public int length() {
+        return input.length;
+    }
+
+    /**
+     * @return the counters for the solve
+     */
+    public SolveStatistics getStatistics() {
+        return statistics;
+    }
+
+    /**
+     * @return the furthest progression reached by the solve
+     */
+    public Progression getFurthestProgression() {
+        return furthestProgression.get();
+    }
+
+    /**
+     * Counts the repeated voicings left out of each chord in the input
+     * @return the number of duplicates removed for each chord name, in input order
+     */
+    public Map<String, Integer> getDuplicatesRemoved() {
+        Map<String, Integer> duplicates = new LinkedHashMap<>();
+        for (String name : input) {
+            if (!duplicates.containsKey(name)) {
+                duplicates.put(name, key.getVoicings(name).getDuplicatesRemoved());
+            }
+        }
+        return duplicates;
+    }
+
+    /**
+     * @return the furthest chord index that had any valid voicings to try
+     */
+    public int getFurthestChord() {
+        return furthestChord.get();
+    }
+}
@@ -0,0 +1,86 @@
+package Music;
+
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Counters kept while solving a progression
+ * Safe to update from many threads at once
+ */
+public class SolveStatistics {
+
+    /**
+     * The number of chord progressions generated
+     */
+    private final LongAdder progressionsGenerated = new LongAdder();
+
+    /**
+     * The number of chord progressions visited
+     */
+    private final LongAdder progressionsVisited = new LongAdder();
+
+    /**
+     * The number of progressions skipped because they were known to fail
+     */
+    private final LongAdder cacheHits = new LongAdder();
+
+    /**
+     * Counts a generated progression
+     */
+    public void generated() {
+        progressionsGenerated.increment();
+    }
+
+    /**
+     * Counts a visited progression
+     */
+    public void visited() {
+        progressionsVisited.increment();
+    }
+
+    /**
+     * Counts a progression skipped by the failure cache
+     */
+    public void cacheHit() {
+        cacheHits.increment();
+    }
+
+    /**
+     * Sets all the counters back to zero
+     */
+    public void reset() {
+        progressionsGenerated.reset();
+        progressionsVisited.reset();
+        cacheHits.reset();
+    }
+
+    /**
+     * @return the number of chord progressions generated
+     */
+    public long getProgressionsGenerated() {
+        return progressionsGenerated.sum();
+    }
+
+    /**
+     * @return the number of chord progressions visited
+     */
+    public long getProgressionsVisited() {
+        return progressionsVisited.sum();
+    }
+
+    /**
+     * @return the number of progressions skipped by the failure cache
+     */
+    public long getCacheHits() {
+        return cacheHits.sum();
+    }
+
+    /**
+     * Returns a string representation of the counters
+     * @return one line per counter
+     */
+    public String toString() {
+        return "Total Progressions Generated: " + getProgressionsGenerated() +
+                "\nTotal Progressions Visisted: " + getProgressionsVisited() +
+                "\nTotal Failure Cache Hits: " + getCacheHits();
+    }
+}
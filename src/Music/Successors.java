@@ -0,0 +1,74 @@
+package Music;
+
+import java.util.Iterator;
+import java.util.NoSuchElementException;
+
+/**
+ * Lazily produces the valid successors of a progression
+ * The voicings are already known to follow the last chord,
+ * so a progression is only built when it is asked for
+ */
+public class Successors implements Iterator<Progression> {
+
+    /**
+     * The progression the successors extend
+     */
+    private final Progression from;
+
+    /**
+     * Every voicing of the next chord
+     */
+    private final VoicingSet voicings;
+
+    /**
+     * Index of each valid voicing in the order to try them
+     */
+    private final int[] order;
+
+    /**
+     * Counters to record each progression that is built
+     */
+    private final SolveStatistics statistics;
+
+    /**
+     * Position of the next voicing in order
+     */
+    private int cursor;
+
+    /**
+     * Constructor for the successors of a progression
+     * @param from the progression to extend
+     * @param voicings every voicing of the next chord
+     * @param order index of each valid voicing in the order to try them
+     * @param statistics counters to record built progressions in
+     */
+    Successors(Progression from, VoicingSet voicings, int[] order, SolveStatistics statistics) {
+        this.from = from;
+        this.voicings = voicings;
+        this.order = order;
+        this.statistics = statistics;
+        this.cursor = 0;
+    }
+
+    /**
+     * @return true if there is another valid successor
+     */
+    @Override
+    public boolean hasNext() {
+        return cursor < order.length;
+    }
+
+    /**
+     * @return the next valid successor
+     * @throws NoSuchElementException if there are no valid successors left
+     */
+    @Override
+    public Progression next() {
+        if (!hasNext()) {
+            throw new NoSuchElementException();
+        }
+        int voicing = order[cursor++];
+        statistics.generated();
+        return new Progression(from, voicings.get(voicing), voicing);
+    }
+}
@@ -0,0 +1,376 @@
+package Music;
+
+import Enums.Voice;
+
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.io.OutputStream;
+import java.nio.ByteBuffer;
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Collections;
+import java.util.HashMap;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.zip.CRC32;
+
+/**
+ * Transition tables for every pair of chords, compiled ahead of time and memory mapped from a file
+ *
+ * The four part rules only look at distances between notes, so a table worked out in C holds
+ * in every key. The store voices each chord in C with the voice ranges widened far enough to
+ * cover every possible key, and one file serves all of them. A key masks out the voicings that
+ * leave its own ranges once transposed.
+ *
+ * File layout, big endian:
+ *     header  magic, format version, rules version, database fingerprint,
+ *             range widening below and above, body length, body checksum
+ *     body    the chord names with the number of voicings of each,
+ *             the offset of the table for each pair of chords,
+ *             then each table as the running count of valid moves per voicing of the
+ *             previous chord followed by the index of every valid next voicing
+ *
+ * A file built for another rule set or chord database is rejected when it is loaded.
+ */
+public final class TransitionStore {
+
+    /**
+     * Marks the start of a store file
+     */
+    private static final int MAGIC = 0x50535453;
+
+    /**
+     * Version of the file layout
+     */
+    public static final int FORMAT_VERSION = 1;
+
+    /**
+     * Bytes in the header
+     */
+    private static final int HEADER_SIZE = 44;
+
+    /**
+     * The store used by new keys, null if there is none
+     */
+    private static volatile TransitionStore installed;
+
+    /**
+     * The body of the file
+     */
+    private final ByteBuffer body;
+
+    /**
+     * Index of each chord name in the file
+     */
+    private final Map<String, Integer> index = new HashMap<>();
+
+    /**
+     * Number of voicings of each chord in the file
+     */
+    private final int[] sizes;
+
+    /**
+     * Position of the first table in the body
+     */
+    private final int tablesStart;
+
+    /**
+     * Position of the offset of each table in the body
+     */
+    private final int offsetsStart;
+
+    /**
+     * How many halfsteps each voice range is widened downward and upward
+     */
+    private final int below;
+    private final int above;
+
+    /**
+     * Voicings of each chord in C with widened ranges, filled in the first time a chord is voiced
+     */
+    private final Map<String, VoicingSet> voicings = new ConcurrentHashMap<>();
+
+    /**
+     * Reads the chord names and offsets out of a mapped file
+     * @param body the body of the file
+     * @param below how many halfsteps each range is widened downward
+     * @param above how many halfsteps each range is widened upward
+     */
+    private TransitionStore(ByteBuffer body, int below, int above) {
+        this.body = body;
+        this.below = below;
+        this.above = above;
+        int count = body.getInt(0);
+        sizes = new int[count];
+        int position = 4;
+        for (int i = 0; i < count; i++) {
+            int length = body.getInt(position);
+            byte[] name = new byte[length];
+            body.get(position + 4, name);
+            index.put(new String(name, StandardCharsets.UTF_8), i);
+            sizes[i] = body.getInt(position + 4 + length);
+            position += 8 + length;
+        }
+        offsetsStart = position;
+        tablesStart = position + 4 * count * count;
+    }
+
+    /**
+     * Maps a store file into memory
+     * @param file the store file
+     * @return the store in the file
+     * @throws IOException if the file cannot be read
+     * @throws MusicTheoryException if the file is not a store, is corrupt or was built for other rules
+     */
+    public static TransitionStore load(Path file) throws IOException {
+        ByteBuffer mapped;
+        try (FileChannel channel = FileChannel.open(file, StandardOpenOption.READ)) {
+            if (channel.size() < HEADER_SIZE) {
+                throw new MusicTheoryException(file + " is not a transition store.");
+            }
+            mapped = channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size());
+        }
+        if (mapped.getInt(0) != MAGIC) {
+            throw new MusicTheoryException(file + " is not a transition store.");
+        }
+        int below = mapped.getInt(20);
+        int above = mapped.getInt(24);
+        if (mapped.getInt(4) != FORMAT_VERSION || mapped.getInt(8) != VoicingRules.RULES_VERSION ||
+                mapped.getLong(12) != fingerprint(below, above)) {
+            throw new MusicTheoryException(file + " was built for a different version of the rules.");
+        }
+        long length = mapped.getLong(28);
+        if (length != mapped.capacity() - HEADER_SIZE) {
+            throw new MusicTheoryException(file + " is corrupt.");
+        }
+        ByteBuffer body = mapped.slice(HEADER_SIZE, (int) length);
+        CRC32 crc = new CRC32();
+        crc.update(body.duplicate());
+        if (crc.getValue() != mapped.getLong(36)) {
+            throw new MusicTheoryException(file + " is corrupt.");
+        }
+        return new TransitionStore(body, below, above);
+    }
+
+    /**
+     * Compiles the tables for every pair of chords in the database and writes them to a file
+     * Replaces the file only once it is fully written
+     * @param file where to write the store
+     * @throws IOException if the file cannot be written
+     */
+    public static void build(Path file) throws IOException {
+        int below = 0;
+        int above = 0;
+        for (int shift : Key.getShifts()) {
+            below = Math.max(below, shift);
+            above = Math.max(above, -shift);
+        }
+        ArrayList<String> names = new ArrayList<>(Key.getDatabase().keySet());
+        Collections.sort(names);
+        ArrayList<VoicingSet> sets = new ArrayList<>();
+        for (String name : names) {
+            VoicingSet set = new VoicingSet(Key.getDatabase().get(name), below, above);
+            if (set.size() > Character.MAX_VALUE) {
+                throw new MusicTheoryException("Chord " + name + " has too many voicings to store.");
+            }
+            sets.add(set);
+        }
+        ByteArrayOutputStream bodyBytes = new ByteArrayOutputStream();
+        DataOutputStream out = new DataOutputStream(bodyBytes);
+        out.writeInt(names.size());
+        for (int i = 0; i < names.size(); i++) {
+            byte[] name = names.get(i).getBytes(StandardCharsets.UTF_8);
+            out.writeInt(name.length);
+            out.write(name);
+            out.writeInt(sets.get(i).size());
+        }
+        ByteArrayOutputStream tableBytes = new ByteArrayOutputStream();
+        DataOutputStream tables = new DataOutputStream(tableBytes);
+        for (VoicingSet from : sets) {
+            for (VoicingSet to : sets) {
+                out.writeInt(tables.size());
+                TransitionTable table = new TransitionTable(from, to);
+                ArrayList<int[]> rows = new ArrayList<>();
+                int total = 0;
+                tables.writeInt(total);
+                for (int v = 0; v < from.size(); v++) {
+                    int[] row = table.successors(v);
+                    rows.add(row);
+                    total += row.length;
+                    tables.writeInt(total);
+                }
+                for (int[] row : rows) {
+                    for (int next : row) {
+                        tables.writeChar(next);
+                    }
+                }
+            }
+        }
+        out.flush();
+        tables.flush();
+        tableBytes.writeTo(bodyBytes);
+        byte[] body = bodyBytes.toByteArray();
+        CRC32 crc = new CRC32();
+        crc.update(body);
+        Path temp = file.resolveSibling(file.getFileName() + ".tmp");
+        try (OutputStream stream = Files.newOutputStream(temp)) {
+            DataOutputStream header = new DataOutputStream(stream);
+            header.writeInt(MAGIC);
+            header.writeInt(FORMAT_VERSION);
+            header.writeInt(VoicingRules.RULES_VERSION);
+            header.writeLong(fingerprint(below, above));
+            header.writeInt(below);
+            header.writeInt(above);
+            header.writeLong(body.length);
+            header.writeLong(crc.getValue());
+            header.write(body);
+            header.flush();
+        }
+        Files.move(temp, file, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    /**
+     * Checksum of everything the tables depend on besides the rules themselves
+     * Covers every chord in the database with its inflections, the voice ranges and the range widening
+     * @param below how many halfsteps each range is widened downward
+     * @param above how many halfsteps each range is widened upward
+     * @return the fingerprint of the database
+     */
+    private static long fingerprint(int below, int above) {
+        StringBuilder dump = new StringBuilder();
+        ArrayList<String> names = new ArrayList<>(Key.getDatabase().keySet());
+        Collections.sort(names);
+        for (String name : names) {
+            Chord c = Key.getDatabase().get(name);
+            dump.append(name).append('=');
+            for (Note n : new Note[]{c.getBass(), c.getTenor(), c.getAlto(), c.getSoprano()}) {
+                dump.append(n).append('>').append(n.getInflection()).append(' ');
+            }
+            dump.append('\n');
+        }
+        for (Voice v : Voice.values()) {
+            dump.append(v).append(Key.getLowRange(v).toInt()).append('-').append(Key.getTopRange(v).toInt()).append('\n');
+        }
+        dump.append(below).append(' ').append(above);
+        CRC32 crc = new CRC32();
+        crc.update(dump.toString().getBytes(StandardCharsets.UTF_8));
+        return crc.getValue();
+    }
+
+    /**
+     * Makes a store the one used by keys compiled from now on
+     * @param store the store to use, null to stop using a store
+     */
+    public static void install(TransitionStore store) {
+        installed = store;
+    }
+
+    /**
+     * @return the store used by new keys, null if there is none
+     */
+    public static TransitionStore installed() {
+        return installed;
+    }
+
+    /**
+     * @param shift halfsteps from C to a key
+     * @return true if the widened ranges cover every voicing in the key
+     */
+    boolean covers(int shift) {
+        return shift <= below && -shift <= above;
+    }
+
+    /**
+     * Voices a chord in a key from its voicings in C
+     * Transposes the voicings within the key's ranges and masks out the rest
+     * @param key the key, which must be covered by the store
+     * @param name the name of the chord
+     * @return the voicings of the chord in the key, indexed like the file
+     */
+    VoicingSet voicings(Key key, String name) {
+        VoicingSet c = widened(name);
+        int shift = key.getShift();
+        Chord[] chords = new Chord[c.size()];
+        long[] packed = new long[c.size()];
+        int[] copies = new int[c.size()];
+        long[] mask = new long[(c.size() + 63) >>> 6];
+        for (int i = 0; i < c.size(); i++) {
+            packed[i] = c.getPacked(i);
+            copies[i] = c.getCopies(i);
+            if (inRange(packed[i], Voicing.BASS, Voice.BASS, shift) &&
+                    inRange(packed[i], Voicing.TENOR, Voice.TENOR, shift) &&
+                    inRange(packed[i], Voicing.ALTO, Voice.ALTO, shift) &&
+                    inRange(packed[i], Voicing.SOPRANO, Voice.SOPRANO, shift)) {
+                chords[i] = c.get(i).transpose(key.getDistance());
+                mask[i >>> 6] |= 1L << i;
+            }
+        }
+        return new VoicingSet(chords, packed, shift, c.getGroups(), copies, mask);
+    }
+
+    /**
+     * @param packed a packed voicing in C
+     * @param offset bit offset of the voice in the packed voicing
+     * @param v the voice part
+     * @param shift halfsteps from C to the key
+     * @return true if the voice is within its range once transposed
+     */
+    private static boolean inRange(long packed, int offset, Voice v, int shift) {
+        int pitch = Voicing.pitch(Voicing.voice(packed, offset)) + shift;
+        return pitch >= Key.getLowRange(v).toInt() && pitch <= Key.getTopRange(v).toInt();
+    }
+
+    /**
+     * Returns the voicings of a chord in C with widened ranges, in the order they are stored
+     * @param name the name of the chord
+     * @return the voicings of the chord
+     * @throws MusicTheoryException if the chord is not in the store
+     */
+    private VoicingSet widened(String name) {
+        return voicings.computeIfAbsent(name, n -> {
+            VoicingSet set = new VoicingSet(Key.getDatabase().get(n), below, above);
+            if (set.size() != sizes[indexOf(n)]) {
+                throw new MusicTheoryException("Chord " + n + " does not match the transition store.");
+            }
+            return set;
+        });
+    }
+
+    /**
+     * Returns the stored table for a pair of chords in a key
+     * @param key the key, which must be covered by the store
+     * @param prevName name of the previous chord
+     * @param nextName name of the next chord
+     * @return the table of valid moves between the chords
+     */
+    TransitionTable table(Key key, String prevName, String nextName) {
+        int from = indexOf(prevName);
+        int to = indexOf(nextName);
+        int position = tablesStart + body.getInt(offsetsStart + 4 * (from * sizes.length + to));
+        IntBuffer counts = body.slice(position, 4 * (sizes[from] + 1)).asIntBuffer();
+        position += 4 * (sizes[from] + 1);
+        CharBuffer entries = body.slice(position, 2 * counts.get(sizes[from])).asCharBuffer();
+        return new TransitionTable(counts, entries, key.getVoicings(nextName));
+    }
+
+    /**
+     * @param name the name of a chord
+     * @return the index of the chord in the file
+     * @throws MusicTheoryException if the chord is not in the store
+     */
+    private int indexOf(String name) {
+        Integer i = index.get(name);
+        if (i == null) {
+            throw new MusicTheoryException("Chord " + name + " is not in the transition store.");
+        }
+        return i;
+    }
+}
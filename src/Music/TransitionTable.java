@@ -0,0 +1,167 @@
+package Music;
+
+import java.nio.CharBuffer;
+import java.nio.IntBuffer;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+/**
+ * Every valid move from a voicing of one chord to a voicing of the next
+ * In a single key the four part rules always give the same answer for a pair of voicings,
+ * so the answers for a pair of chord names are worked out once and stored as one bitset
+ * per voicing of the first chord. Bit j of row i is set if voicing j of the next chord
+ * can follow voicing i of the previous chord.
+ *
+ * Tables are shared by every solve through a cache that drops the least recently used table.
+ * Keys covered by a TransitionStore read their tables out of the store instead of building them.
+ */
+public final class TransitionTable {
+
+    /**
+     * The most tables kept in the cache
+     */
+    public static final int CACHE_SIZE = 1024;
+
+    /**
+     * Tables by key and chord names, least recently used first
+     */
+    private static final Map<String, TransitionTable> cache = Collections.synchronizedMap(
+            new LinkedHashMap<>(16, 0.75f, true) {
+                @Override
+                protected boolean removeEldestEntry(Map.Entry<String, TransitionTable> eldest) {
+                    return size() > CACHE_SIZE;
+                }
+            });
+
+    /**
+     * One bitset over the next chord's voicings for each voicing of the previous chord
+     */
+    private final long[][] rows;
+
+    /**
+     * For a stored table, the running count of valid moves before each voicing of the previous chord
+     */
+    private final IntBuffer counts;
+
+    /**
+     * For a stored table, the index of every valid next voicing, row by row
+     */
+    private final CharBuffer entries;
+
+    /**
+     * For a stored table, the voicings of the next chord in the key
+     */
+    private final VoicingSet to;
+
+    /**
+     * Checks every pair of voicings between two chords
+     * Only pairs where the next voicing fits around the previous one are checked against the rules
+     * @param from voicings of the previous chord
+     * @param to voicings of the next chord
+     */
+    TransitionTable(VoicingSet from, VoicingSet to) {
+        this.counts = null;
+        this.entries = null;
+        this.to = null;
+        rows = new long[from.size()][];
+        int words = (to.size() + 63) >>> 6;
+        for (int i = 0; i < from.size(); i++) {
+            long[] row = new long[words];
+            long prev = from.getPacked(i);
+            for (int j : to.indicesBetween(from.get(i))) {
+                if (VoicingRules.checkFourPart(to.getPacked(j), prev)) {
+                    row[j >>> 6] |= 1L << j;
+                }
+            }
+            rows[i] = row;
+        }
+    }
+
+    /**
+     * Constructor for a table read out of a TransitionStore
+     * @param counts the running count of valid moves before each voicing of the previous chord
+     * @param entries the index of every valid next voicing, row by row
+     * @param to voicings of the next chord in the key, masking out voicings outside its ranges
+     */
+    TransitionTable(IntBuffer counts, CharBuffer entries, VoicingSet to) {
+        this.rows = null;
+        this.counts = counts;
+        this.entries = entries;
+        this.to = to;
+    }
+
+    /**
+     * Returns the table for a pair of chords in a key
+     * Builds the table if it is not in the cache
+     * Tables of keys that are not shared are built every time, since the cache is keyed by tonic
+     * @param key the key of the progression
+     * @param prevName name of the previous chord
+     * @param nextName name of the next chord
+     * @return the table of valid moves between the chords
+     */
+    public static TransitionTable of(Key key, String prevName, String nextName) {
+        if (!key.isShared()) {
+            return new TransitionTable(key.getVoicings(prevName), key.getVoicings(nextName));
+        }
+        String id = key.getTonic() + " " + prevName + " " + nextName;
+        TransitionTable table = cache.get(id);
+        if (table == null) {
+            if (key.getStore() != null) {
+                table = key.getStore().table(key, prevName, nextName);
+            } else {
+                table = new TransitionTable(key.getVoicings(prevName),
+                        key.getVoicings(nextName));
+            }
+            cache.put(id, table);
+        }
+        return table;
+    }
+
+    /**
+     * Scans the row of a voicing for the voicings that can follow it
+     * @param voicing index of the previous voicing
+     * @return the index of each valid next voicing, in generation order
+     */
+    public int[] successors(int voicing) {
+        if (rows == null) {
+            return storedSuccessors(voicing);
+        }
+        long[] row = rows[voicing];
+        int count = 0;
+        for (long word : row) {
+            count += Long.bitCount(word);
+        }
+        int[] valid = new int[count];
+        int k = 0;
+        for (int w = 0; w < row.length; w++) {
+            long bits = row[w];
+            while (bits != 0) {
+                valid[k++] = (w << 6) + Long.numberOfTrailingZeros(bits);
+                bits &= bits - 1;
+            }
+        }
+        return valid;
+    }
+
+    /**
+     * Reads the row of a voicing out of the store
+     * Leaves out voicings outside the ranges of the key
+     * @param voicing index of the previous voicing
+     * @return the index of each valid next voicing, in generation order
+     */
+    private int[] storedSuccessors(int voicing) {
+        int start = counts.get(voicing);
+        int end = counts.get(voicing + 1);
+        int[] valid = new int[end - start];
+        int k = 0;
+        for (int i = start; i < end; i++) {
+            int next = entries.get(i);
+            if (to.contains(next)) {
+                valid[k++] = next;
+            }
+        }
+        return k == valid.length ? valid : Arrays.copyOf(valid, k);
+    }
+}
@@ -0,0 +1,184 @@
+package Music;
+
+import Enums.Accidental;
+import Enums.N;
+
+/**
+ * Packs notes and chords into primitives for the rule checks
+ *
+ * Each voice takes 16 bits:
+ *     bits 0-6   pitch in halfsteps from A0, shifted up by PITCH_OFFSET
+ *     bits 7-9   letter of the note
+ *     bits 10-15 letter and accidental of the inflection, 0 if there is none
+ * The accidental and octave of the note follow from its pitch and letter.
+ * A chord packs its four voices into one long with the bass in the highest bits.
+ */
+public final class Voicing {
+
+    /**
+     * Bit offset of each voice in a packed chord
+     */
+    public static final int SOPRANO = 0;
+    public static final int ALTO = 16;
+    public static final int TENOR = 32;
+    public static final int BASS = 48;
+
+    /**
+     * Added to each pitch so double flats in the lowest octave are not negative
+     */
+    private static final int PITCH_OFFSET = 2;
+
+    /**
+     * Halfsteps from A to each letter, indexed by the letter's ordinal
+     */
+    private static final int[] letterPitch = {0, 2, 3, 5, 7, 8, 10};
+
+    /**
+     * Halfsteps from the natural note for each accidental, indexed by the accidental's ordinal
+     */
+    private static final int[] accidentalPitch = {1, -1, 0, 2, -2};
+
+    private Voicing() {
+    }
+
+    /**
+     * Packs a single note
+     * @param note note name
+     * @param octave the octave of the note
+     * @param a the accidental
+     * @param inflection the note this note wants to inflect towards, null if there is none
+     * @return the 16 bit code for the note
+     */
+    static int pack(N note, int octave, Accidental a, Note inflection) {
+        int pitch = letterPitch[note.ordinal()] + octave * 12 + accidentalPitch[a.ordinal()];
+        int code = (pitch + PITCH_OFFSET) | (note.ordinal() << 7);
+        if (inflection != null) {
+            int target = inflection.getNote().ordinal() * Accidental.values().length + inflection.getAccidental().ordinal();
+            code |= (target + 1) << 10;
+        }
+        return code;
+    }
+
+    /**
+     * Gets one voice out of a packed chord
+     * @param chord the packed chord
+     * @param voice bit offset of the voice (SOPRANO, ALTO, TENOR or BASS)
+     * @return the 16 bit code for the voice
+     */
+    public static int voice(long chord, int voice) {
+        return (int) (chord >>> voice) & 0xFFFF;
+    }
+
+    /**
+     * @param note a packed note
+     * @return the number of halfsteps from A0
+     */
+    public static int pitch(int note) {
+        return (note & 0x7F) - PITCH_OFFSET;
+    }
+
+    /**
+     * @param note a packed note
+     * @return the ordinal of the note's letter
+     */
+    public static int letter(int note) {
+        return (note >>> 7) & 0x7;
+    }
+
+    /**
+     * @param note a packed note
+     * @return the octave of the note
+     */
+    public static int octave(int note) {
+        return Math.floorDiv(pitch(note) - letterPitch[letter(note)] + 2, 12);
+    }
+
+    /**
+     * @param note a packed note
+     * @return true if the note has an inflection
+     */
+    public static boolean hasInflection(int note) {
+        return (note >>> 10) != 0;
+    }
+
+    /**
+     * Two notes inflect to the same note if their inflections are equal
+     * @param note a packed note
+     * @return the letter and accidental of the inflection, 0 if there is none
+     */
+    public static int inflection(int note) {
+        return note >>> 10;
+    }
+
+    /**
+     * @param note a packed note with an inflection
+     * @return the ordinal of the letter the note inflects towards
+     */
+    public static int inflectionLetter(int note) {
+        return ((note >>> 10) - 1) / Accidental.values().length;
+    }
+
+    /**
+     * Finds the basic interval between two packed notes
+     * Only does intervals up to and including an octave
+     * Also fills the table of intervals behind Note.getInterval
+     * @param from the first note
+     * @param to the note to compare to
+     * @return the note distance in the high 16 bits and the halfstep distance in the low 16 bits
+     */
+    public static int interval(int from, int to) {
+        int halfsteps = pitch(to) - pitch(from);
+        int noteDist = 0;
+        if (halfsteps > 0) {
+            noteDist = Math.floorMod(letter(to) - letter(from), 7);
+            //Allows for octave distancing
+            if (noteDist == 0 && octave(from) < octave(to)) {
+                noteDist = 7;
+            }
+        } else if (halfsteps < 0) {
+            noteDist = -Math.floorMod(letter(from) - letter(to), 7);
+            //Allows for octave distancing
+            if (noteDist == 0 && octave(from) > octave(to)) {
+                noteDist = -7;
+            }
+        }
+        //Keeps the halfsteps within an octave
+        halfsteps = halfsteps % 12;
+        //Corrects the halfsteps to allow octave intervals
+        if (noteDist == -7 && !(halfsteps <= -8)) {
+            halfsteps -= 12;
+        } else if (noteDist == 7 && !(halfsteps >= 8)) {
+            halfsteps += 12;
+        }
+        return (noteDist << 16) | (halfsteps & 0xFFFF);
+    }
+
+    /**
+     * @param interval a packed interval
+     * @return the halfstep distance of the interval
+     */
+    public static int halfsteps(int interval) {
+        return (short) interval;
+    }
+
+    /**
+     * @param interval a packed interval
+     * @return the note distance of the interval
+     */
+    public static int noteDist(int interval) {
+        return interval >> 16;
+    }
+
+    /**
+     * Total distance every voice moves between two packed chords
+     * @param from the first packed chord
+     * @param to the next packed chord
+     * @return the sum of the halfsteps moved by each voice
+     */
+    public static int motion(long from, long to) {
+        return Math.abs(pitch(voice(to, SOPRANO)) - pitch(voice(from, SOPRANO))) +
+                Math.abs(pitch(voice(to, ALTO)) - pitch(voice(from, ALTO))) +
+                Math.abs(pitch(voice(to, TENOR)) - pitch(voice(from, TENOR))) +
+                Math.abs(pitch(voice(to, BASS)) - pitch(voice(from, BASS)));
+    }
+}
@@ -0,0 +1,187 @@
+package Music;
+
+import static Music.Voicing.*;
+
+/**
+ * The four part harmonization rules on packed chords
+ * Every check is plain integer arithmetic and allocates nothing.
+ * Progression checks chords by packing them and calling these methods.
+ */
+public final class VoicingRules {
+
+    /**
+     * Version of the rules, raised whenever a change to them could change which moves are valid
+     * A TransitionStore built for another version is rejected
+     */
+    public static final int RULES_VERSION = 1;
+
+    private VoicingRules() {
+    }
+
+    /**
+     * Checks if the four part harmonization is correct
+     * @param cur the current packed chord
+     * @param prev the previous packed chord
+     * @return true if the harmonization is correct
+     */
+    public static boolean checkFourPart(long cur, long prev) {
+        return checkDistancing(cur) && checkVoiceCrossing(cur, prev) && checkJumps(cur, prev) &&
+                checkInflection(cur, prev) && checkParallels(cur, prev);
+    }
+
+    /**
+     * Checks the four part for a single chord
+     * @param cur the packed chord to check
+     * @return true if the four part is correct
+     */
+    public static boolean checkFourPart(long cur) {
+        return checkDistancing(cur) && checkVoiceCrossing(cur, cur);
+    }
+
+    /**
+     * Checks if there are parallels between the chords
+     * Ignores parallels between double inflections
+     * @param cur the current packed chord
+     * @param prev the previous packed chord
+     * @return true if there are no parallels
+     */
+    public static boolean checkParallels(long cur, long prev) {
+        int curSoprano = voice(cur, SOPRANO);
+        int curAlto = voice(cur, ALTO);
+        int curTenor = voice(cur, TENOR);
+        int curBass = voice(cur, BASS);
+        int prevSoprano = voice(prev, SOPRANO);
+        int prevAlto = voice(prev, ALTO);
+        int prevTenor = voice(prev, TENOR);
+        int prevBass = voice(prev, BASS);
+        int soprano = interval(prevSoprano, curSoprano);
+        int alto = interval(prevAlto, curAlto);
+        int tenor = interval(prevTenor, curTenor);
+        int bass = interval(prevBass, curBass);
+        return !(isParallel(curSoprano, curAlto, soprano, alto, prevSoprano, prevAlto) ||
+                isParallel(curSoprano, curTenor, soprano, tenor, prevSoprano, prevTenor) ||
+                isParallel(curSoprano, curBass, soprano, bass, prevSoprano, prevBass) ||
+                isParallel(curAlto, curTenor, alto, tenor, prevAlto, prevTenor) ||
+                isParallel(curAlto, curBass, alto, bass, prevAlto, prevBass) ||
+                isParallel(curTenor, curBass, tenor, bass, prevTenor, prevBass));
+    }
+
+    /**
+     * Checks if two voices move in parallel perfect intervals
+     * @param upper the current upper note
+     * @param lower the current lower note
+     * @param upperMotion interval the upper voice moved
+     * @param lowerMotion interval the lower voice moved
+     * @param prevUpper the previous upper note
+     * @param prevLower the previous lower note
+     * @return true if the voices are parallel and not both inflections
+     */
+    private static boolean isParallel(int upper, int lower, int upperMotion, int lowerMotion,
+                                      int prevUpper, int prevLower) {
+        return upperMotion == lowerMotion && halfsteps(upperMotion) != 0 &&
+                !(hasInflection(prevUpper) && hasInflection(prevLower)) &&
+                isPerfect(halfsteps(interval(upper, lower)));
+    }
+
+    /**
+     * Same as Interval.isPerfect
+     * @param halfsteps halfstep distance of an interval
+     * @return true if the interval is perfect
+     */
+    private static boolean isPerfect(int halfsteps) {
+        return halfsteps == 0 ||
+                halfsteps == 5 ||
+                halfsteps == 7 ||
+                halfsteps == 12 ||
+                halfsteps == -5 ||
+                halfsteps == -7 ||
+                halfsteps == -12;
+    }
+
+    /**
+     * Checks that the voices do not make jumps grater than 6ths
+     * @param cur current packed chord
+     * @param prev previous packed chord
+     * @return true if all the voices do not have too large of a jump
+     */
+    public static boolean checkJumps(long cur, long prev) {
+        return Math.abs(pitch(voice(prev, SOPRANO)) - pitch(voice(cur, SOPRANO))) <= 9 &&
+                Math.abs(pitch(voice(prev, ALTO)) - pitch(voice(cur, ALTO))) <= 9 &&
+                Math.abs(pitch(voice(prev, TENOR)) - pitch(voice(cur, TENOR))) <= 9 &&
+                Math.abs(pitch(voice(prev, BASS)) - pitch(voice(cur, BASS))) <= 9;
+    }
+
+    /**
+     * Checks if the voices are properly distanced (within an octave of each other)
+     * @param cur the current packed chord
+     * @return true if the distancing is correct
+     */
+    public static boolean checkDistancing(long cur) {
+        int soprano = pitch(voice(cur, SOPRANO));
+        int alto = pitch(voice(cur, ALTO));
+        int tenor = pitch(voice(cur, TENOR));
+        int bass = pitch(voice(cur, BASS));
+        return tenor - bass >= 0 &&
+                alto - tenor <= 12 &&
+                alto - tenor >= 0 &&
+                soprano - alto <= 12 &&
+                soprano - alto >= 0;
+    }
+
+    /**
+     * Checks if there is voice crossing between voices
+     * @param cur the current packed chord
+     * @param prev the previous packed chord
+     * @return true if there is no voice crossing
+     */
+    public static boolean checkVoiceCrossing(long cur, long prev) {
+        int curSoprano = pitch(voice(cur, SOPRANO));
+        int curAlto = pitch(voice(cur, ALTO));
+        int curTenor = pitch(voice(cur, TENOR));
+        int curBass = pitch(voice(cur, BASS));
+        int prevSoprano = pitch(voice(prev, SOPRANO));
+        int prevAlto = pitch(voice(prev, ALTO));
+        int prevTenor = pitch(voice(prev, TENOR));
+        int prevBass = pitch(voice(prev, BASS));
+        boolean curChordWorks = curSoprano >= curAlto &&
+                curAlto >= curTenor &&
+                curTenor >= curBass;
+        boolean prevChordWorks = prevSoprano >= curAlto &&
+                prevAlto >= curTenor &&
+                prevTenor >= curBass &&
+                curSoprano >= prevAlto &&
+                curAlto >= prevTenor &&
+                curTenor >= prevBass;
+        return curChordWorks && prevChordWorks;
+    }
+
+    /**
+     * Checks if all notes are resolved properly
+     * @param cur the current packed chord
+     * @param prev the previous packed chord
+     * @return true if all the inflection is correct
+     */
+    public static boolean checkInflection(long cur, long prev) {
+        return isProperInflection(voice(prev, BASS), voice(cur, BASS)) &&
+                isProperInflection(voice(prev, TENOR), voice(cur, TENOR)) &&
+                isProperInflection(voice(prev, ALTO), voice(cur, ALTO)) &&
+                isProperInflection(voice(prev, SOPRANO), voice(cur, SOPRANO));
+    }
+
+    /**
+     * Same as Note.isProperInflection, but also true if the note has no inflection
+     * Inflections are compared by letter and accidental. Every inflection in a key
+     * comes from the chord database, so inflections with the same spelling are in the same octave.
+     * @param note the previous note in a voice
+     * @param next the next note in the same voice
+     * @return true if the note has no inflection or resolves properly
+     */
+    private static boolean isProperInflection(int note, int next) {
+        if (!hasInflection(note)) {
+            return true;
+        }
+        return (note & 0x3FF) == (next & 0x3FF) ||
+                inflectionLetter(note) == letter(next) ||
+                inflection(note) == inflection(next);
+    }
+}
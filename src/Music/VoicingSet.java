@@ -0,0 +1,417 @@
+package Music;
+
+import Enums.Voice;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.Objects;
+
+/**
+ * Every voicing of a chord within the voice ranges
+ * Built once per chord in a key, then filtered against the previous chord on each step.
+ *
+ * Each distinct voicing is kept once. Placements of the upper voices that repeat an
+ * earlier placement are skipped, and any other repeat is caught by its packed voicing.
+ *
+ * Voicings keep the order they are generated in: one block per placement of the upper
+ * voices, each ordered by bass, tenor, alto and soprano from low to high. A block is split
+ * into groups that share a bass note, so the tenor within a group is sorted and the
+ * voicings between two tenor notes can be found with a binary search.
+ *
+ * A set loaded from a TransitionStore also holds voicings outside the voice ranges of its key.
+ * Those are left out by a mask and never returned.
+ */
+public final class VoicingSet {
+
+    /**
+     * Every voicing in generation order
+     * Null for voicings outside the mask
+     */
+    private final Chord[] chords;
+
+    /**
+     * The packed voicing of every chord, indexed like chords
+     */
+    private final long[] packed;
+
+    /**
+     * The pitch of each voice for every voicing, indexed like chords
+     */
+    private final int[] bass;
+    private final int[] tenor;
+    private final int[] alto;
+    private final int[] soprano;
+
+    /**
+     * Index of the first voicing in each group, followed by the number of voicings
+     */
+    private final int[] groups;
+
+    /**
+     * How many repeats of each voicing were left out, indexed like chords
+     */
+    private final int[] copies;
+
+    /**
+     * Bitset of the voicings within the voice ranges, null if they all are
+     */
+    private final long[] mask;
+
+    /**
+     * How many repeated voicings were left out
+     */
+    private final int duplicatesRemoved;
+
+    /**
+     * Enumerates every distinct voicing of a generic chord
+     * Keeps the bass on the same note but shuffles the other voices around
+     * @param generic the generic chord
+     */
+    VoicingSet(Chord generic) {
+        this(generic, 0, 0);
+    }
+
+    /**
+     * Enumerates every distinct voicing of a generic chord within widened voice ranges
+     * @param generic the generic chord
+     * @param below how many halfsteps to widen each range downward
+     * @param above how many halfsteps to widen each range upward
+     */
+    VoicingSet(Chord generic, int below, int above) {
+        Note b = generic.getBass();
+        Note t = generic.getTenor();
+        Note a = generic.getAlto();
+        Note s = generic.getSoprano();
+        Note[][] placements = {{t, a, s}, {a, s, t}, {s, t, a}, {t, s, a}, {a, t, s}, {s, a, t}};
+        ArrayList<ArrayList<Integer>> placementVoicings = new ArrayList<>();
+        ArrayList<Chord> all = new ArrayList<>();
+        ArrayList<Integer> starts = new ArrayList<>();
+        ArrayList<Integer> repeats = new ArrayList<>();
+        HashMap<Long, Integer> seen = new HashMap<>();
+        for (int i = 0; i < placements.length; i++) {
+            ArrayList<Integer> voicings = new ArrayList<>();
+            int repeated = findRepeat(placements, i);
+            if (repeated >= 0) {
+                voicings = placementVoicings.get(repeated);
+                for (int voicing : voicings) {
+                    repeats.set(voicing, repeats.get(voicing) + 1);
+                }
+            } else {
+                generatePossibleChords(b, placements[i][0], placements[i][1], placements[i][2],
+                        generic.getChordName(), below, above, all, starts, seen, repeats, voicings);
+            }
+            placementVoicings.add(voicings);
+        }
+        chords = all.toArray(new Chord[0]);
+        packed = new long[chords.length];
+        copies = new int[chords.length];
+        int duplicates = 0;
+        for (int i = 0; i < chords.length; i++) {
+            packed[i] = chords[i].getVoicingKey();
+            copies[i] = repeats.get(i);
+            duplicates += copies[i];
+        }
+        duplicatesRemoved = duplicates;
+        mask = null;
+        bass = new int[chords.length];
+        tenor = new int[chords.length];
+        alto = new int[chords.length];
+        soprano = new int[chords.length];
+        fillPitches(0);
+        groups = new int[starts.size() + 1];
+        for (int i = 0; i < starts.size(); i++) {
+            groups[i] = starts.get(i);
+        }
+        groups[starts.size()] = chords.length;
+    }
+
+    /**
+     * Constructor for a set loaded from a TransitionStore
+     * @param chords every voicing, null for voicings outside the mask
+     * @param packed the packed voicing of every chord in C, replaced by the voicings in the key
+     * @param shift halfsteps from C to the key
+     * @param groups index of the first voicing in each group, followed by the number of voicings
+     * @param copies how many repeats of each voicing were left out
+     * @param mask bitset of the voicings within the voice ranges
+     */
+    VoicingSet(Chord[] chords, long[] packed, int shift, int[] groups, int[] copies, long[] mask) {
+        this.chords = chords;
+        this.packed = packed;
+        this.groups = groups;
+        this.copies = copies;
+        this.mask = mask;
+        bass = new int[chords.length];
+        tenor = new int[chords.length];
+        alto = new int[chords.length];
+        soprano = new int[chords.length];
+        fillPitches(shift);
+        int duplicates = 0;
+        for (int i = 0; i < chords.length; i++) {
+            if (contains(i)) {
+                packed[i] = chords[i].getVoicingKey();
+                duplicates += copies[i];
+            }
+        }
+        duplicatesRemoved = duplicates;
+    }
+
+    /**
+     * Unpacks the pitch of every voice
+     * @param shift halfsteps to add to every pitch
+     */
+    private void fillPitches(int shift) {
+        for (int i = 0; i < packed.length; i++) {
+            bass[i] = Voicing.pitch(Voicing.voice(packed[i], Voicing.BASS)) + shift;
+            tenor[i] = Voicing.pitch(Voicing.voice(packed[i], Voicing.TENOR)) + shift;
+            alto[i] = Voicing.pitch(Voicing.voice(packed[i], Voicing.ALTO)) + shift;
+            soprano[i] = Voicing.pitch(Voicing.voice(packed[i], Voicing.SOPRANO)) + shift;
+        }
+    }
+
+    /**
+     * Finds an earlier placement of the upper voices that gives the same voicings
+     * Octaves do not matter since every octave of each note is tried
+     * @param placements the placements of the tenor, alto and soprano notes
+     * @param index the placement to look for
+     * @return index of the earlier placement, -1 if there is none
+     */
+    private static int findRepeat(Note[][] placements, int index) {
+        for (int i = 0; i < index; i++) {
+            if (isSameSpelling(placements[i][0], placements[index][0]) &&
+                    isSameSpelling(placements[i][1], placements[index][1]) &&
+                    isSameSpelling(placements[i][2], placements[index][2])) {
+                return i;
+            }
+        }
+        return -1;
+    }
+
+    /**
+     * @param n a note
+     * @param other another note
+     * @return true if the notes have the same name, accidental and inflection
+     */
+    private static boolean isSameSpelling(Note n, Note other) {
+        return n.isSameNote(other) && Objects.equals(n.getInflection(), other.getInflection());
+    }
+
+    /**
+     * Generates all the iterations of the chord with the voices in a given position
+     * Starts a new group for each bass note
+     * @param bass the base note
+     * @param tenor the tenor note
+     * @param alto the alto note
+     * @param soprano the soprano note
+     * @param name chord name
+     * @param below how many halfsteps to widen each range downward
+     * @param above how many halfsteps to widen each range upward
+     * @param all list to add the voicings to
+     * @param starts list to add the index of each new group to
+     * @param seen index of each packed voicing already in the list
+     * @param repeats how many repeats of each voicing were left out
+     * @param voicings list to add the index of every voicing generated to, repeats included
+     */
+    private static void generatePossibleChords(Note bass, Note tenor, Note alto, Note soprano, String name,
+                                               int below, int above, ArrayList<Chord> all,
+                                               ArrayList<Integer> starts, HashMap<Long, Integer> seen,
+                                               ArrayList<Integer> repeats, ArrayList<Integer> voicings) {
+        for (Note bassNote : getPossibleNotes(Voice.BASS, bass, below, above)) {
+            starts.add(all.size());
+            for (Note tenorNote : getPossibleNotes(Voice.TENOR, tenor, below, above)) {
+                for (Note altoNote : getPossibleNotes(Voice.ALTO, alto, below, above)) {
+                    for (Note sopranoNote : getPossibleNotes(Voice.SOPRANO, soprano, below, above)) {
+                        Chord possible = new Chord(bassNote, tenorNote, altoNote, sopranoNote, name);
+                        Integer index = seen.get(possible.getVoicingKey());
+                        if (index == null) {
+                            index = all.size();
+                            seen.put(possible.getVoicingKey(), index);
+                            all.add(possible);
+                            repeats.add(0);
+                        } else {
+                            repeats.set(index, repeats.get(index) + 1);
+                        }
+                        voicings.add(index);
+                    }
+                }
+            }
+        }
+    }
+
+    /**
+     * Returns the possible notes in the correct octave that a voice can sing
+     * @param v the voice part
+     * @param n the note to place in the correct octave
+     * @param below how many halfsteps to widen the range downward
+     * @param above how many halfsteps to widen the range upward
+     * @return every octave of the note within the voice's range, from low to high
+     */
+    private static ArrayList<Note> getPossibleNotes(Voice v, Note n, int below, int above) {
+        int low = Key.getLowRange(v).toInt() - below;
+        int high = Key.getTopRange(v).toInt() + above;
+        ArrayList<Note> possible = new ArrayList<>();
+        for (int octave = Math.max(0, low / 12 - 1); ; octave++) {
+            Note curNote = Note.of(n.getNote(), octave, n.getAccidental(), n.getInflection());
+            if (curNote.toInt() > high) {
+                break;
+            }
+            if (curNote.toInt() >= low) {
+                possible.add(curNote);
+            }
+        }
+        return possible;
+    }
+
+    /**
+     * Finds the voicings that fit around the previous chord
+     * Each voice must stay between the neighbouring voices of the previous chord
+     * @param prev the previous chord, null if there is none
+     * @return a new list of the voicings in generation order
+     */
+    public ArrayList<Chord> between(Chord prev) {
+        ArrayList<Chord> possible = new ArrayList<>();
+        if (prev == null) {
+            for (int i = 0; i < chords.length; i++) {
+                if (contains(i)) {
+                    possible.add(chords[i]);
+                }
+            }
+            return possible;
+        }
+        for (int i : indicesBetween(prev)) {
+            possible.add(chords[i]);
+        }
+        return possible;
+    }
+
+    /**
+     * Finds the voicings that fit around the previous chord
+     * @param prev the previous chord
+     * @return the index of each voicing that fits, in generation order
+     */
+    int[] indicesBetween(Chord prev) {
+        int prevSoprano = prev.getSoprano().toInt();
+        int prevAlto = prev.getAlto().toInt();
+        int prevTenor = prev.getTenor().toInt();
+        int prevBass = prev.getBass().toInt();
+        int[] possible = new int[chords.length];
+        int count = 0;
+        for (int g = 0; g < groups.length - 1; g++) {
+            int end = groups[g + 1];
+            if (groups[g] == end || bass[groups[g]] > prevTenor) {
+                continue;
+            }
+            for (int i = firstTenor(groups[g], end, prevBass); i < end && tenor[i] <= prevAlto; i++) {
+                if (alto[i] >= prevTenor && alto[i] <= prevSoprano && soprano[i] >= prevAlto && contains(i)) {
+                    possible[count++] = i;
+                }
+            }
+        }
+        return Arrays.copyOf(possible, count);
+    }
+
+    /**
+     * Finds the voicings that can follow a chord under the four part rules
+     * Checks every voicing that fits around the chord, or every voicing alone if there is no chord
+     * @param prev the previous chord, null if there is none
+     * @return the index of each valid voicing, in generation order
+     */
+    int[] validAfter(Chord prev) {
+        int[] valid = new int[chords.length];
+        int count = 0;
+        if (prev == null) {
+            for (int i = 0; i < chords.length; i++) {
+                if (contains(i) && VoicingRules.checkFourPart(packed[i])) {
+                    valid[count++] = i;
+                }
+            }
+        } else {
+            long prevPacked = prev.getVoicingKey();
+            for (int i : indicesBetween(prev)) {
+                if (VoicingRules.checkFourPart(packed[i], prevPacked)) {
+                    valid[count++] = i;
+                }
+            }
+        }
+        return Arrays.copyOf(valid, count);
+    }
+
+    /**
+     * Binary search for the first voicing in a group with a tenor at or above a pitch
+     * @param start index of the first voicing in the group
+     * @param end index after the last voicing in the group
+     * @param pitch the lowest tenor pitch
+     * @return index of the first voicing with a high enough tenor, end if there is none
+     */
+    private int firstTenor(int start, int end, int pitch) {
+        while (start < end) {
+            int mid = (start + end) >>> 1;
+            if (tenor[mid] < pitch) {
+                start = mid + 1;
+            } else {
+                end = mid;
+            }
+        }
+        return start;
+    }
+
+    /**
+     * @param index index of a voicing
+     * @return true if the voicing is within the voice ranges
+     */
+    boolean contains(int index) {
+        return mask == null || (mask[index >>> 6] & (1L << index)) != 0;
+    }
+
+    /**
+     * @return bitset of the voicings within the voice ranges, null if they all are
+     */
+    long[] getMask() {
+        return mask;
+    }
+
+    /**
+     * @return index of the first voicing in each group, followed by the number of voicings
+     */
+    int[] getGroups() {
+        return groups;
+    }
+
+    /**
+     * @param index index of a voicing
+     * @return how many repeats of the voicing were left out
+     */
+    int getCopies(int index) {
+        return copies[index];
+    }
+
+    /**
+     * @return the number of repeated voicings left out of the set
+     */
+    public int getDuplicatesRemoved() {
+        return duplicatesRemoved;
+    }
+
+    /**
+     * @param index index of a voicing
+     * @return the voicing
+     */
+    public Chord get(int index) {
+        return chords[index];
+    }
+
+    /**
+     * @param index index of a voicing
+     * @return the packed voicing
+     */
+    long getPacked(int index) {
+        return packed[index];
+    }
+
+    /**
+     * @return the number of voicings in the set, counting any outside the voice ranges
+     */
+    public int size() {
+        return chords.length;
+    }
+}
@@ -1,9 +1,29 @@
 import DisplayGUI.ProgressionGUI;
+import Enums.Engine;
+import Enums.SolveStatus;
+import Enums.SuccessorOrder;
 import Music.Key;
+import Music.MusicTheoryException;
 import Music.Progression;
+import Music.TransitionStore;
+import Solver.ArcConsistency;
+import Solver.Backtracker;
+import Solver.BeamSolver;
+import Solver.FeasibilityChecker;
+import Solver.LayeredSolver;
+import Solver.OptimalSolver;
+import Solver.ParallelSolver;
+import Solver.PortfolioSolver;
+import Solver.RestartSolver;
+import Solver.SmoothVoiceLeading;
+import Solver.SolveResult;
 
 import java.io.File;
 import java.io.FileNotFoundException;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.time.Duration;
 import java.util.ArrayList;
 import java.util.Arrays;
 import java.util.Scanner;
@@ -39,130 +59,275 @@ public class ProgressionSolver {
     private static ProgressionGUI pgui;
 
     /**
-     * The furthest progression when solving the progression
-     * Used for displaying the progression if there is an error
+     * Which solver engine to use for solving progressions
      */
-    private static Progression furthestProgression = null;
+    private static Engine engine;
 
     /**
-     * The number of chord progressions generated
+     * Whether or not to prune the voicings with arc consistency before solving
      */
-    private static int totalProgressionsGenerated;
+    private static boolean prune;
 
     /**
-     * The number of chord progressions visited
+     * The order the search tries the voicings of each chord in
      */
-    private static int totalProgressionsVisisted;
+    private static SuccessorOrder order;
 
     /**
-     * Backtracker solve method
-     * @param begin starting progression
-     * @return a solved progression if it is solvable null otherwise
+     * How many progressions the beam engine keeps at each chord
      */
-    public static Progression solve(Progression begin) {
-        totalProgressionsVisisted++;
-        if (begin.isGoal()) {
-            return begin;
-        } else {
-            for (Progression p : begin.getSuccessors()) {
-                if (animate) {
-                    pgui.setProgression(p);
-                    pgui.updateGUI();
-                    try {
-                        Thread.sleep(sleepTime);
-                    } catch (InterruptedException e) {
-                    }
-                }
-                totalProgressionsGenerated++;
-                if (p.isValid()) {
-                    if (p.depth() > furthestProgression.depth()) {
-                        furthestProgression = p;
-                    }
-                    Progression end = solve(p);
-                    if (end != null) {
-                        return end;
-                    }
-                }
-            }
-        }
-        return null;
-    }
+    private static int beamWidth;
+
+    /**
+     * How long the backtracking engines may search, null for no limit
+     */
+    private static Duration timeout;
+
+    /**
+     * The seed for the random order of the search, null to pick one for each solve
+     */
+    private static Long seed;
 
     private static void printUsage() {
-        System.err.println("Usage: ProgressionSolver.java [-t [sleep time]]");
+        System.err.println("Usage: ProgressionSolver.java [-t [sleep time]] [-e backtrack|layered|parallel|optimal|beam|restart|portfolio] [-w beam width] [-d deadline ms] [-r seed] [-s store file] [-p] [-o random|enumeration|smooth]");
     }
 
     public static void main(String[] args) {
-        if (args.length == 1) {
-            if (args[0].equals("-t")) {
+        animate = false;
+        prune = false;
+        beamWidth = BeamSolver.DEFAULT_WIDTH;
+        timeout = null;
+        seed = null;
+        order = Progression.RANDOM ? SuccessorOrder.RANDOM : SuccessorOrder.ENUMERATION;
+        engine = Engine.BACKTRACK;
+        int i = 0;
+        while (i < args.length) {
+            if (args[i].equals("-t")) {
                 animate = true;
                 sleepTime = DEFAULT_SLEEPTIME;
-            } else {
-                System.err.println(args[0] + " is not a valid input.");
-                printUsage();
-                System.exit(1);
-            }
-        } else if (args.length == 2) {
-            if (args[0].equals("-t")) {
-                if (isNumber(args[1])) {
-                    int sleep = Integer.parseInt(args[1]);
-                    if (sleep > 0) {
-                        animate = true;
-                        sleepTime = sleep;
+                if (i + 1 < args.length && !args[i + 1].startsWith("-")) {
+                    i++;
+                    if (isNumber(args[i])) {
+                        int sleep = Integer.parseInt(args[i]);
+                        if (sleep > 0) {
+                            sleepTime = sleep;
+                        } else {
+                            System.err.println("Sleep time must be a positive non-zero integer.");
+                            System.exit(1);
+                        }
                     } else {
-                        System.err.println("Sleep time must be a positive non-zero integer.");
+                        System.err.println(args[i] + " is not a positive non-zero integer.");
                         System.exit(1);
                     }
+                }
+            } else if (args[i].equals("-e")) {
+                if (i + 1 < args.length && isEngine(args[i + 1])) {
+                    i++;
+                    engine = Engine.valueOf(args[i].toUpperCase());
+                } else {
+                    System.err.println("-e must be followed by a solver engine.");
+                    printUsage();
+                    System.exit(1);
+                }
+            } else if (args[i].equals("-o")) {
+                if (i + 1 < args.length && isOrder(args[i + 1])) {
+                    i++;
+                    order = SuccessorOrder.valueOf(args[i].toUpperCase());
                 } else {
-                    System.err.println(args[1] + " is not a positive non-zero integer.");
+                    System.err.println("-o must be followed by a successor order.");
+                    printUsage();
+                    System.exit(1);
+                }
+            } else if (args[i].equals("-d")) {
+                if (i + 1 < args.length && isNumber(args[i + 1]) && Integer.parseInt(args[i + 1]) > 0) {
+                    i++;
+                    timeout = Duration.ofMillis(Integer.parseInt(args[i]));
+                } else {
+                    System.err.println("-d must be followed by a positive non-zero integer.");
+                    printUsage();
+                    System.exit(1);
+                }
+            } else if (args[i].equals("-r")) {
+                if (i + 1 < args.length && isSeed(args[i + 1])) {
+                    i++;
+                    seed = Long.parseLong(args[i]);
+                } else {
+                    System.err.println("-r must be followed by an integer seed.");
+                    printUsage();
+                    System.exit(1);
+                }
+            } else if (args[i].equals("-w")) {
+                if (i + 1 < args.length && isNumber(args[i + 1]) && Integer.parseInt(args[i + 1]) > 0) {
+                    i++;
+                    beamWidth = Integer.parseInt(args[i]);
+                } else {
+                    System.err.println("-w must be followed by a positive non-zero integer.");
+                    printUsage();
+                    System.exit(1);
+                }
+            } else if (args[i].equals("-p")) {
+                prune = true;
+            } else if (args[i].equals("-s")) {
+                if (i + 1 < args.length && !args[i + 1].startsWith("-")) {
+                    i++;
+                    loadStore(Path.of(args[i]));
+                } else {
+                    System.err.println("-s must be followed by a file.");
+                    printUsage();
                     System.exit(1);
                 }
             } else {
-                System.err.println(args[0] + " is not a valid input.");
+                System.err.println(args[i] + " is not a valid input.");
                 printUsage();
                 System.exit(1);
             }
-        } else if (args.length > 2){
-            printUsage();
-            System.exit(1);
-        } else {
-            animate = false;
+            i++;
         }
         pgui = new ProgressionGUI();
         runMenu();
     }
 
+    /**
+     * Loads the transition store from a file for every solve to use
+     * Builds the file first if it is missing or was built for other rules
+     * @param file the store file
+     */
+    private static void loadStore(Path file) {
+        try {
+            if (Files.exists(file)) {
+                try {
+                    TransitionStore.install(TransitionStore.load(file));
+                    return;
+                } catch (MusicTheoryException e) {
+                    System.err.println(e.getMessage() + " Rebuilding it.");
+                }
+            }
+            System.err.println("Building transition store " + file + "...");
+            TransitionStore.build(file);
+            TransitionStore.install(TransitionStore.load(file));
+        } catch (IOException e) {
+            System.err.println("Could not use transition store " + file + ": " + e.getMessage());
+            System.exit(1);
+        }
+    }
+
     private static void solveProgression(String key, ArrayList<String> chords) {
         String[] figuredBass = new String[chords.size() + 1];
         figuredBass[0] = key + "4";
         for (int i = 1; i < figuredBass.length; i++) {
             figuredBass[i] = chords.get(i - 1);
         }
-        Progression p = new Progression(figuredBass);
-        furthestProgression = p;
-        totalProgressionsVisisted = 0;
-        totalProgressionsGenerated = 0;
-        Progression solved = solve(p);
-        if (solved == null) {
-            pgui.setProgression(furthestProgression);
-            pgui.updateGUI();
-            System.out.println(furthestProgression);
-            int furthestChord = p.getFurthestChord();
-            System.out.println("Problem with chord #" + furthestChord + ": " + p.getChordName(furthestChord - 1));
-            System.out.println(p.getChordName(furthestChord - 2) +  " cannot resolve to " + p.getChordName(furthestChord - 1));
-        } else {
-            pgui.setProgression(solved);
-            pgui.updateGUI();
-            System.out.println(solved);
+        try {
+            Progression p = new Progression(figuredBass);
+            p.getContext().setOrder(order);
+            if (seed != null) {
+                p.getContext().setSeed(seed);
+            }
+            FeasibilityChecker feasibility = new FeasibilityChecker();
+            int unreachable = feasibility.check(p);
+            if (unreachable >= 0) {
+                Progression furthestProgression = feasibility.getFurthestProgression();
+                pgui.setProgression(furthestProgression);
+                pgui.updateGUI();
+                if (furthestProgression.depth() > 0) {
+                    System.out.println(furthestProgression);
+                }
+                printProblem(p, unreachable);
+            } else {
+                if (prune) {
+                    // Cannot empty a chord once the progression is known to have a solution
+                    ArcConsistency arcs = new ArcConsistency();
+                    arcs.prune(p);
+                    System.out.println("Voicings Left After Pruning: " + arcs.getTotalVoicingsLeft());
+                }
+                search(p);
+            }
+        } catch (MusicTheoryException e) {
+            System.out.println(e.getMessage());
         }
-        System.out.println("\nTotal Progressions Generated: " + totalProgressionsGenerated);
-        System.out.println("Total Progressions Visisted: " + totalProgressionsVisisted);
         System.out.println("\nPress enter to return to the main menu.");
         System.out.print("> ");
         Scanner scanner = new Scanner(System.in);
         scanner.nextLine();
     }
 
+    /**
+     * Solves a progression with the chosen engine and prints the result
+     * The progression must already be known to have a solution
+     * @param p the starting progression
+     */
+    private static void search(Progression p) {
+        Progression solved;
+        String statistics;
+        if (engine == Engine.LAYERED) {
+            LayeredSolver layered = new LayeredSolver();
+            solved = layered.solve(p);
+            statistics = "\nTotal Voicings Reached: " + layered.getTotalVoicingsReached() +
+                    "\nTotal Transitions Scanned: " + layered.getTotalTransitionsScanned();
+        } else if (engine == Engine.OPTIMAL) {
+            OptimalSolver optimal = new OptimalSolver();
+            solved = optimal.solve(p);
+            statistics = "\nTotal Voice Leading Cost: " + optimal.getTotalCost();
+        } else if (engine == Engine.BEAM) {
+            BeamSolver beam = new BeamSolver(beamWidth, new SmoothVoiceLeading());
+            solved = beam.solve(p);
+            statistics = beam.fellBack() ? "\nBeam died, solved with the backtracker" :
+                    "\nTotal Voice Leading Cost: " + beam.getTotalCost();
+        } else if (engine == Engine.RESTART) {
+            RestartSolver restart = new RestartSolver();
+            solved = restart.solve(p);
+            statistics = "\nRestarts: " + restart.getRestarts() +
+                    "\nTotal Progressions Visited: " + restart.getTotalProgressionsVisited() +
+                    "\nRandom Seed: " + p.getContext().getSeed();
+        } else if (engine == Engine.PORTFOLIO) {
+            PortfolioSolver portfolio = new PortfolioSolver();
+            solved = portfolio.solve(p);
+            statistics = "\nWinner: " + portfolio.getWinner().name().toLowerCase() +
+                    " in " + portfolio.getTime() + "ms\n" + portfolio.getStatistics() +
+                    "\nPortfolio Wins: " + PortfolioSolver.getWinStatistics();
+        } else if (engine == Engine.PARALLEL) {
+            ParallelSolver parallel = new ParallelSolver();
+            SolveResult result = parallel.solve(p, timeout);
+            solved = result.getProgression();
+            statistics = describe(result) + "\n" + parallel.getStatistics() +
+                    "\nRandom Seed: " + p.getContext().getSeed();
+        } else {
+            Backtracker backtracker = animate ? new Backtracker(pgui, sleepTime) : new Backtracker();
+            SolveResult result = backtracker.solve(p, timeout);
+            solved = result.getProgression();
+            statistics = describe(result) + "\n" + backtracker.getStatistics() +
+                    "\nRandom Seed: " + p.getContext().getSeed();
+        }
+        pgui.setProgression(solved);
+        pgui.updateGUI();
+        System.out.println(solved);
+        System.out.println(statistics);
+        System.out.println("Duplicate Voicings Removed: " + p.getContext().getDuplicatesRemoved());
+    }
+
+    /**
+     * @param result the result of a solve with a deadline
+     * @return a note on why the progression is not complete, empty if it is
+     */
+    private static String describe(SolveResult result) {
+        if (result.getStatus() == SolveStatus.TIMED_OUT) {
+            return "\nRan out of time after " + timeout.toMillis() + "ms, showing the deepest progression found";
+        }
+        return "";
+    }
+
+    /**
+     * Prints which chord makes the progression impossible
+     * @param p the starting progression
+     * @param index index of the problem chord
+     */
+    private static void printProblem(Progression p, int index) {
+        System.out.println("Problem with chord #" + (index + 1) + ": " + p.getChordName(index));
+        if (index > 0) {
+            System.out.println(p.getChordName(index - 1) + " cannot resolve to " + p.getChordName(index));
+        }
+    }
+
     /**
      * Checks if the given user input is a proper chord
      * @param input the user's input
@@ -187,6 +352,48 @@ public class ProgressionSolver {
         return Key.checkKey(input);
     }
 
+    /**
+     * Checks if the given input names a solver engine
+     * @param input the user's input
+     * @return true if the input is the name of an engine
+     */
+    public static boolean isEngine(String input) {
+        for (Engine e : Engine.values()) {
+            if (e.name().equalsIgnoreCase(input)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the given input names a successor order
+     * @param input the user's input
+     * @return true if the input is the name of a successor order
+     */
+    public static boolean isOrder(String input) {
+        for (SuccessorOrder o : SuccessorOrder.values()) {
+            if (o.name().equalsIgnoreCase(input)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * Checks if the given input is a seed for the random order
+     * @param input the user's input
+     * @return true if the input is a whole number that fits in a long
+     */
+    public static boolean isSeed(String input) {
+        try {
+            Long.parseLong(input);
+            return true;
+        } catch (NumberFormatException e) {
+            return false;
+        }
+    }
+
     /**
      * Checks if the given user input is a number
      * @param input the user's input
@@ -0,0 +1,144 @@
+import Enums.RestartSchedule;
+import Music.Progression;
+import Solver.Backtracker;
+import Solver.FeasibilityChecker;
+import Solver.RestartSolver;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Compares solve times of the backtracker with and without restarts
+ * Generates a corpus of random progressions that have a solution, solves each one with
+ * several seeds, and prints the percentiles of the solve times for each strategy.
+ * Usage: RestartBenchmark [progressions] [chords] [seeds per progression]
+ */
+public class RestartBenchmark {
+
+    /**
+     * Keys the corpus is drawn from
+     */
+    private static final String[] KEYS = {"C4", "G3", "D4", "A3", "E4", "F3", "bB3", "bE4"};
+
+    /**
+     * Chords the corpus is drawn from
+     */
+    private static final String[] CHORDS = {"I", "I6", "I6/4", "ii", "ii6", "iii", "IV", "IV6",
+            "V", "V6", "V7", "V6/5", "V4/3", "V2", "vi", "viio6", "V/V", "V7/V", "V/vi", "V/IV"};
+
+    public static void main(String[] args) {
+        int count = args.length > 0 ? Integer.parseInt(args[0]) : 200;
+        int length = args.length > 1 ? Integer.parseInt(args[1]) : 32;
+        int seeds = args.length > 2 ? Integer.parseInt(args[2]) : 5;
+        String[][] corpus = corpus(count, length, new Random(1));
+        // Warms up the JIT and the transition tables before anything is timed
+        run(corpus, seeds, null);
+        System.out.printf("%d progressions of %d chords, %d seeds each%n", count, length, seeds);
+        System.out.printf("%-12s %10s %10s %10s %10s %12s %12s%n", "strategy", "p50 us", "p90 us", "p99 us",
+                "max us", "p99 visited", "max visited");
+        report("backtrack", run(corpus, seeds, null));
+        report("luby", run(corpus, seeds, RestartSchedule.LUBY));
+        report("geometric", run(corpus, seeds, RestartSchedule.GEOMETRIC));
+    }
+
+    /**
+     * Generates progressions that have a solution
+     * Random chords are added one at a time and kept only if the progression can still be solved,
+     * since long progressions of random chords almost never can.
+     * @param count how many progressions to generate
+     * @param length how many chords each progression has
+     * @param random where the keys and chords are drawn from
+     * @return each progression as a key followed by its chords
+     */
+    private static String[][] corpus(int count, int length, Random random) {
+        FeasibilityChecker checker = new FeasibilityChecker();
+        String[][] corpus = new String[count][];
+        for (int c = 0; c < count; c++) {
+            String[] input = new String[length + 1];
+            input[0] = KEYS[random.nextInt(KEYS.length)];
+            input[1] = "I";
+            input[length] = "I";
+            for (int i = 2; i < length && input[1] != null; i++) {
+                int tries = 0;
+                do {
+                    input[i] = CHORDS[random.nextInt(CHORDS.length)];
+                    // Starts the progression over if no chord seems to fit
+                    if (++tries > CHORDS.length * 4) {
+                        input[1] = null;
+                        break;
+                    }
+                } while (checker.check(new Progression(Arrays.copyOf(input, i + 1))) >= 0);
+            }
+            if (input[1] == null || checker.check(new Progression(input)) >= 0) {
+                c--;
+                continue;
+            }
+            corpus[c] = input;
+        }
+        return corpus;
+    }
+
+    /**
+     * Solves every progression in the corpus with each seed
+     * @param corpus the progressions to solve
+     * @param seeds how many seeds to solve each progression with
+     * @param schedule the restart schedule, null for the plain backtracker
+     * @return the solve time of every solve in ns and the progressions each visited, in pairs
+     */
+    private static long[][] run(String[][] corpus, int seeds, RestartSchedule schedule) {
+        long[][] runs = new long[corpus.length * seeds][];
+        Backtracker backtracker = new Backtracker();
+        RestartSolver restart = schedule == null ? null : new RestartSolver(schedule, RestartSolver.DEFAULT_UNIT);
+        for (int i = 0; i < corpus.length; i++) {
+            for (int s = 0; s < seeds; s++) {
+                Progression p = new Progression(corpus[i]);
+                p.getContext().setSeed(s);
+                long start = System.nanoTime();
+                Progression solved;
+                long visited;
+                if (restart == null) {
+                    solved = backtracker.solve(p);
+                    visited = backtracker.getStatistics().getProgressionsVisited();
+                } else {
+                    solved = restart.solve(p);
+                    visited = restart.getTotalProgressionsVisited();
+                }
+                long time = System.nanoTime() - start;
+                if (solved == null) {
+                    throw new IllegalStateException("No solution for " + String.join(" ", corpus[i]));
+                }
+                runs[i * seeds + s] = new long[]{time, visited};
+            }
+        }
+        return runs;
+    }
+
+    /**
+     * Prints the percentiles of the solve times and progressions visited
+     * @param strategy name of the strategy
+     * @param runs the solve time and progressions visited of every solve
+     */
+    private static void report(String strategy, long[][] runs) {
+        long[] times = new long[runs.length];
+        long[] visited = new long[runs.length];
+        for (int i = 0; i < runs.length; i++) {
+            times[i] = runs[i][0];
+            visited[i] = runs[i][1];
+        }
+        Arrays.sort(times);
+        Arrays.sort(visited);
+        System.out.printf("%-12s %10d %10d %10d %10d %12d %12d%n", strategy, percentile(times, 50) / 1000,
+                percentile(times, 90) / 1000, percentile(times, 99) / 1000, times[times.length - 1] / 1000,
+                percentile(visited, 99), visited[visited.length - 1]);
+    }
+
+    /**
+     * @param sorted values in ascending order
+     * @param percent the percentile, from 0 to 100
+     * @return the nearest rank percentile of the values
+     */
+    private static long percentile(long[] sorted, int percent) {
+        int rank = (int) Math.ceil(percent / 100.0 * sorted.length);
+        return sorted[Math.max(rank - 1, 0)];
+    }
+}
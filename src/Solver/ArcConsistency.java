@@ -0,0 +1,199 @@
+package Solver;
+
+import Music.Key;
+import Music.Progression;
+import Music.SolveContext;
+import Music.TransitionTable;
+
+import java.util.ArrayDeque;
+
+/**
+ * Arc consistency pre-pass (AC-3) over the voicings of a progression
+ * Each chord index has a domain of voicings and every pair of neighbouring indexes is a
+ * constraint given by the transition tables. A voicing is removed when no voicing left at a
+ * neighbouring index can go with it, and removals are propagated until nothing changes.
+ * If a domain becomes empty the progression is impossible and no search is needed.
+ * Otherwise the pruned domains are kept in the solve's context and every engine only
+ * tries voicings that are left.
+ */
+public class ArcConsistency {
+
+    /**
+     * The number of voicings left over all chord indexes after the last prune
+     */
+    private int totalVoicingsLeft;
+
+    /**
+     * The number of times a domain was revised against a neighbour in the last prune
+     */
+    private int totalRevisions;
+
+    /**
+     * Prunes the voicings of every chord after the starting progression
+     * @param begin starting progression
+     * @return index of the chord whose voicings were all removed, -1 if every chord has voicings left
+     */
+    public int prune(Progression begin) {
+        SolveContext context = begin.getContext();
+        Key key = context.getKey();
+        int first = begin.depth();
+        int count = context.length() - first;
+        totalVoicingsLeft = 0;
+        totalRevisions = 0;
+        if (count <= 0) {
+            return -1;
+        }
+        long[][] domains = new long[count][];
+        TransitionTable[] tables = new TransitionTable[count];
+        for (int i = 0; i < count; i++) {
+            String name = context.getChordName(first + i);
+            int size = key.getVoicings(name).size();
+            domains[i] = new long[(size + 63) >>> 6];
+            if (i == 0) {
+                for (int v : begin.getNextVoicings()) {
+                    domains[i][v >>> 6] |= 1L << v;
+                }
+            } else {
+                for (int v = 0; v < size; v++) {
+                    domains[i][v >>> 6] |= 1L << v;
+                }
+                tables[i] = TransitionTable.of(key, context.getChordName(first + i - 1), name);
+            }
+        }
+        // Arcs are stored as index * 2 for a revision against the chord before and index * 2 + 1 for the chord after
+        ArrayDeque<Integer> queue = new ArrayDeque<>();
+        boolean[] queued = new boolean[count * 2];
+        for (int i = 1; i < count; i++) {
+            queue.add(i * 2);
+            queued[i * 2] = true;
+        }
+        for (int i = count - 2; i >= 0; i--) {
+            queue.add(i * 2 + 1);
+            queued[i * 2 + 1] = true;
+        }
+        if (isEmpty(domains[0])) {
+            return first;
+        }
+        while (!queue.isEmpty()) {
+            int arc = queue.poll();
+            queued[arc] = false;
+            int i = arc >>> 1;
+            totalRevisions++;
+            boolean changed = (arc & 1) == 0 ?
+                    reviseForward(domains[i], domains[i - 1], tables[i]) :
+                    reviseBackward(domains[i], domains[i + 1], tables[i + 1]);
+            if (!changed) {
+                continue;
+            }
+            if (isEmpty(domains[i])) {
+                return first + i;
+            }
+            if (i + 1 < count && !queued[(i + 1) * 2]) {
+                queue.add((i + 1) * 2);
+                queued[(i + 1) * 2] = true;
+            }
+            if (i > 0 && !queued[(i - 1) * 2 + 1]) {
+                queue.add((i - 1) * 2 + 1);
+                queued[(i - 1) * 2 + 1] = true;
+            }
+        }
+        for (long[] domain : domains) {
+            for (long word : domain) {
+                totalVoicingsLeft += Long.bitCount(word);
+            }
+        }
+        context.restrict(first, domains);
+        return -1;
+    }
+
+    /**
+     * Removes the voicings that no voicing left at the chord before can move to
+     * @param domain voicings left at the chord
+     * @param prev voicings left at the chord before
+     * @param table valid moves from the chord before to the chord
+     * @return true if any voicing was removed
+     */
+    private static boolean reviseForward(long[] domain, long[] prev, TransitionTable table) {
+        long[] support = new long[domain.length];
+        for (int w = 0; w < prev.length; w++) {
+            long bits = prev[w];
+            while (bits != 0) {
+                for (int v : table.successors((w << 6) + Long.numberOfTrailingZeros(bits))) {
+                    support[v >>> 6] |= 1L << v;
+                }
+                bits &= bits - 1;
+            }
+        }
+        boolean changed = false;
+        for (int w = 0; w < domain.length; w++) {
+            long kept = domain[w] & support[w];
+            changed |= kept != domain[w];
+            domain[w] = kept;
+        }
+        return changed;
+    }
+
+    /**
+     * Removes the voicings that cannot move to any voicing left at the chord after
+     * @param domain voicings left at the chord
+     * @param next voicings left at the chord after
+     * @param table valid moves from the chord to the chord after
+     * @return true if any voicing was removed
+     */
+    private static boolean reviseBackward(long[] domain, long[] next, TransitionTable table) {
+        boolean changed = false;
+        for (int w = 0; w < domain.length; w++) {
+            long bits = domain[w];
+            while (bits != 0) {
+                int voicing = (w << 6) + Long.numberOfTrailingZeros(bits);
+                if (!hasSupport(table.successors(voicing), next)) {
+                    domain[w] &= ~(1L << voicing);
+                    changed = true;
+                }
+                bits &= bits - 1;
+            }
+        }
+        return changed;
+    }
+
+    /**
+     * @param successors voicings that can follow a voicing
+     * @param next voicings left at the chord after
+     * @return true if any of the successors is left
+     */
+    private static boolean hasSupport(int[] successors, long[] next) {
+        for (int v : successors) {
+            if ((next[v >>> 6] & (1L << v)) != 0) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    /**
+     * @param domain a set of voicings
+     * @return true if no voicings are left
+     */
+    private static boolean isEmpty(long[] domain) {
+        for (long word : domain) {
+            if (word != 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    /**
+     * @return the number of voicings left over all chord indexes after the last prune
+     */
+    public int getTotalVoicingsLeft() {
+        return totalVoicingsLeft;
+    }
+
+    /**
+     * @return the number of domain revisions made by the last prune
+     */
+    public int getTotalRevisions() {
+        return totalRevisions;
+    }
+}
@@ -0,0 +1,385 @@
+package Solver;
+
+import DisplayGUI.ProgressionGUI;
+import Enums.SolveStatus;
+import Music.Progression;
+import Music.SolveContext;
+import Music.SolveStatistics;
+import Music.Successors;
+
+import java.time.Duration;
+import java.util.SplittableRandom;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Iterative backtracker for chord progressions
+ * Keeps an explicit stack with one frame per chord index instead of recursing,
+ * so the depth of the search is only limited by the heap
+ * Runs one solve at a time. Counters and the furthest progression
+ * are kept in the solve's context, so separate backtrackers can solve at once.
+ * A solve can be given a deadline, which is checked every CHECK_INTERVAL progressions.
+ * A solve stops with a CancellationException within CHECK_INTERVAL progressions of being
+ * cancelled or of its thread being interrupted.
+ */
+public class Backtracker {
+
+    /**
+     * How many progressions each search explores between checks of the deadline and cancellation
+     * Must be a power of two
+     */
+    public static final int CHECK_INTERVAL = 1024;
+
+    /**
+     * The GUI used to display each chord the backtracker explores
+     * Null if the search is not animated
+     */
+    private final ProgressionGUI gui;
+
+    /**
+     * How long the animation pauses after each chord
+     */
+    private final int sleepTime;
+
+    /**
+     * The input, counters and furthest progress of the current solve
+     */
+    private SolveContext context;
+
+    /**
+     * Progressions known to fail in the current solve
+     */
+    private FailureCache failures;
+
+    /**
+     * Whether the current solve has a deadline
+     */
+    private boolean timed;
+
+    /**
+     * When the current solve has to stop, in System.nanoTime
+     */
+    private long deadline;
+
+    /**
+     * Whether the deadline of the current solve has passed
+     */
+    private volatile boolean expired;
+
+    /**
+     * Whether the current solve was cancelled
+     */
+    private volatile boolean cancelled;
+
+    /**
+     * The most progressions a search may explore before it is cut off
+     */
+    private long cutoff;
+
+    /**
+     * Whether the last search was cut off
+     */
+    private boolean cutOff;
+
+    /**
+     * Constructor for a backtracker that does not animate
+     */
+    public Backtracker() {
+        this(null, 0);
+    }
+
+    /**
+     * Constructor for a backtracker that displays each chord it explores
+     * @param gui the GUI to display the progression on
+     * @param sleepTime how long to pause after each chord in ms
+     */
+    public Backtracker(ProgressionGUI gui, int sleepTime) {
+        this.gui = gui;
+        this.sleepTime = sleepTime;
+    }
+
+    /**
+     * Backtracker solve method
+     * Explores the successors of each progression depth first
+     * @param begin starting progression
+     * @return a solved progression if it is solvable null otherwise
+     */
+    public Progression solve(Progression begin) {
+        start(begin, null);
+        if (begin.isGoal()) {
+            return begin;
+        }
+        return search(begin, null, context.getRandom());
+    }
+
+    /**
+     * Backtracker solve method with a deadline
+     * Stops once the time runs out and returns the deepest valid progression found so far
+     * @param begin starting progression
+     * @param timeout how long the search may run, null for no limit
+     * @return the solution, or the deepest progression if the progression is unsolvable or time ran out
+     */
+    public SolveResult solve(Progression begin, Duration timeout) {
+        start(begin, timeout);
+        Progression solved = begin.isGoal() ? begin : search(begin, null, context.getRandom());
+        return result(solved);
+    }
+
+    /**
+     * Solves a progression on an executor
+     * Cancelling the future stops the search, interrupting the animation if there is one
+     * @param begin starting progression
+     * @param executor the executor to run the solve on, such as one starting a virtual thread per task
+     * @return a future for the solved progression, which completes with null if there is none
+     */
+    public CompletableFuture<Progression> solveAsync(Progression begin, Executor executor) {
+        return CancellableSolve.start(() -> solve(begin), this::cancel, executor);
+    }
+
+    /**
+     * Stops the current solve
+     * The search throws a CancellationException the next time it checks
+     */
+    public void cancel() {
+        cancelled = true;
+    }
+
+    /**
+     * Throws if the current solve was cancelled or its thread was interrupted
+     * @throws CancellationException if the solve has to stop
+     */
+    void checkCancelled() {
+        if (cancelled || Thread.currentThread().isInterrupted()) {
+            cancelled = true;
+            throw new CancellationException("Solve was cancelled.");
+        }
+    }
+
+    /**
+     * Clears the counters and failure cache for a new solve
+     * Counts the starting progression as visited
+     * @param begin starting progression
+     * @param timeout how long the search may run, null for no limit
+     */
+    void start(Progression begin, Duration timeout) {
+        timed = timeout != null;
+        deadline = timed ? System.nanoTime() + timeout.toNanos() : 0;
+        expired = false;
+        cancelled = false;
+        cutoff = Long.MAX_VALUE;
+        cutOff = false;
+        context = begin.getContext();
+        context.reset(begin);
+        failures = new FailureCache(begin.length());
+        context.getStatistics().visited();
+    }
+
+    /**
+     * Searches depth first below a progression that was already visited
+     * Safe to call from many threads at once after start
+     * @param begin the progression to search from
+     * @param solution solution found by another search, null if there is no other search
+     * @param random the random stream this search shuffles successors with
+     * @return a solved progression, or null if there is none or another search finished first
+     */
+    Progression search(Progression begin, AtomicReference<Progression> solution, SplittableRandom random) {
+        Frame[] stack = new Frame[begin.length() - begin.depth() + 1];
+        for (int i = 0; i < stack.length; i++) {
+            stack[i] = new Frame();
+        }
+        int top = 0;
+        long explored = 0;
+        stack[top].push(begin, random);
+        while (top >= 0) {
+            if (solution != null && solution.get() != null) {
+                return null;
+            }
+            if (explored >= cutoff) {
+                cutOff = true;
+                return null;
+            }
+            if ((++explored & (CHECK_INTERVAL - 1)) == 0) {
+                checkCancelled();
+                if (timed && System.nanoTime() - deadline >= 0) {
+                    expired = true;
+                }
+            }
+            if (expired) {
+                return null;
+            }
+            Frame frame = stack[top];
+            if (!frame.hasNext()) {
+                failures.add(frame.pop());
+                top--;
+                continue;
+            }
+            Progression p = frame.next();
+            display(p);
+            if (accept(p)) {
+                if (p.isGoal()) {
+                    return p;
+                }
+                top++;
+                stack[top].push(p, random);
+            }
+        }
+        return null;
+    }
+
+    /**
+     * Runs one attempt of a restart strategy
+     * Searches until it finds a solution or has explored a number of progressions.
+     * Progressions cut off are not recorded as failures, so the cache can be shared by every attempt.
+     * @param begin starting progression
+     * @param shared failure cache shared with the other attempts
+     * @param limit the most progressions to explore
+     * @return a solved progression, or null if there is none or the attempt was cut off
+     */
+    Progression attempt(Progression begin, FailureCache shared, long limit) {
+        start(begin, null);
+        failures = shared;
+        cutoff = limit;
+        if (begin.isGoal()) {
+            return begin;
+        }
+        return search(begin, null, context.getRandom());
+    }
+
+    /**
+     * @return true if the last attempt was cut off before it finished
+     */
+    boolean isCutOff() {
+        return cutOff;
+    }
+
+    /**
+     * Builds the result of the current solve
+     * @param solved the solution, null if none was found
+     * @return the solution, or the deepest progression reached and why there is no solution
+     */
+    SolveResult result(Progression solved) {
+        if (solved != null) {
+            return new SolveResult(SolveStatus.SOLVED, solved);
+        }
+        SolveStatus status = expired ? SolveStatus.TIMED_OUT : SolveStatus.UNSOLVABLE;
+        return new SolveResult(status, context.getFurthestProgression());
+    }
+
+    /**
+     * @return true if the deadline of the current solve has passed
+     */
+    boolean isExpired() {
+        return expired;
+    }
+
+    /**
+     * Checks if a valid successor is worth exploring
+     * Counts the progression as visited if it is
+     * @param p a valid successor progression
+     * @return true if the progression is not known to fail
+     */
+    boolean accept(Progression p) {
+        if (failures.contains(p)) {
+            context.getStatistics().cacheHit();
+            return false;
+        }
+        context.reached(p);
+        context.getStatistics().visited();
+        return true;
+    }
+
+    /**
+     * Records that every successor of a progression was explored without a solution
+     * @param p the progression that failed
+     */
+    void fail(Progression p) {
+        failures.add(p);
+    }
+
+    /**
+     * Shows the progression on the GUI if the search is animated
+     * @param p the progression being explored
+     */
+    private void display(Progression p) {
+        if (gui != null) {
+            gui.setProgression(p);
+            gui.updateGUI();
+            try {
+                Thread.sleep(sleepTime);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                cancelled = true;
+                throw new CancellationException("Solve was interrupted.");
+            }
+        }
+    }
+
+    /**
+     * @return the furthest progression reached by the last solve
+     */
+    public Progression getFurthestProgression() {
+        return context.getFurthestProgression();
+    }
+
+    /**
+     * @return the counters for the last solve
+     */
+    public SolveStatistics getStatistics() {
+        return context.getStatistics();
+    }
+
+    /**
+     * A single level of the search
+     * Holds the lazily generated successors of the progression at this chord index
+     */
+    private static class Frame {
+
+        /**
+         * The progression this frame expands
+         */
+        private Progression progression;
+
+        /**
+         * Valid successors of the progression at this level
+         * Acts as the cursor to the next successor to explore
+         */
+        private Successors successors;
+
+        /**
+         * Fills the frame with the successors of a progression
+         * @param p the progression to expand
+         * @param random the random stream to shuffle the successors with
+         */
+        void push(Progression p, SplittableRandom random) {
+            progression = p;
+            successors = p.getSuccessors(random);
+        }
+
+        /**
+         * Clears the frame so its successors can be collected
+         * @return the progression this frame expanded
+         */
+        Progression pop() {
+            Progression p = progression;
+            progression = null;
+            successors = null;
+            return p;
+        }
+
+        /**
+         * @return true if there are successors left to explore
+         */
+        boolean hasNext() {
+            return successors.hasNext();
+        }
+
+        /**
+         * @return the next successor to explore
+         */
+        Progression next() {
+            return successors.next();
+        }
+    }
+}
@@ -0,0 +1,153 @@
+package Solver;
+
+import Music.Progression;
+import Music.SolveContext;
+
+import java.util.Arrays;
+
+/**
+ * Beam search solver for very long chord progressions
+ * Keeps only the best few progressions at each chord index, scored by a voice leading cost.
+ * Each progression in the beam is extended by every voicing that can follow it, the cheapest
+ * way to each voicing is kept, and the cheapest voicings make the next beam.
+ * The state kept for each index is bounded by the beam width, and a solve takes
+ * O(length * width * branching) time. Dropping progressions can lose every solution,
+ * so when the beam dies the exact backtracker solves the progression instead.
+ */
+public class BeamSolver {
+
+    /**
+     * The beam width used if none is given
+     */
+    public static final int DEFAULT_WIDTH = 16;
+
+    /**
+     * How many progressions are kept at each chord index
+     */
+    private final int width;
+
+    /**
+     * How voice leading is scored
+     */
+    private final VoiceLeadingCost cost;
+
+    /**
+     * The input and furthest progress of the current solve
+     */
+    private SolveContext context;
+
+    /**
+     * The cost of the progression found by the last solve, -1 if it was not found by the beam
+     */
+    private long totalCost;
+
+    /**
+     * Whether the last solve had to fall back to the exact backtracker
+     */
+    private boolean fellBack;
+
+    /**
+     * Constructor for a beam solver with the default width and voice leading cost
+     */
+    public BeamSolver() {
+        this(DEFAULT_WIDTH, new SmoothVoiceLeading());
+    }
+
+    /**
+     * Constructor for a beam solver
+     * @param width how many progressions to keep at each chord index
+     * @param cost how voice leading is scored
+     */
+    public BeamSolver(int width, VoiceLeadingCost cost) {
+        if (width < 1) {
+            throw new IllegalArgumentException("Beam width must be at least 1.");
+        }
+        this.width = width;
+        this.cost = cost;
+    }
+
+    /**
+     * Beam solve method
+     * @param begin starting progression
+     * @return a solved progression if it is solvable null otherwise
+     */
+    public Progression solve(Progression begin) {
+        context = begin.getContext();
+        context.reset(begin);
+        totalCost = -1;
+        fellBack = false;
+        Progression[] beam = {begin};
+        long[] beamCost = {0};
+        for (int i = begin.depth(); i < begin.length(); i++) {
+            int size = beam[0].getNextVoicingSet().size();
+            // Cheapest way to each voicing of the next chord: the cost and the index in the beam
+            long[] best = new long[size];
+            int[] parent = new int[size];
+            Arrays.fill(best, Long.MAX_VALUE);
+            int[] reached = new int[size];
+            int reachedCount = 0;
+            for (int b = 0; b < beam.length; b++) {
+                Progression from = beam[b];
+                long last = from.getLastChord() == null ? 0 : from.getLastChord().getVoicingKey();
+                for (int v : from.getNextVoicings()) {
+                    long next = from.getNextVoicingSet().get(v).getVoicingKey();
+                    long total = beamCost[b] + cost.voicing(next);
+                    if (from.getLastChord() != null) {
+                        total += cost.transition(last, next);
+                    }
+                    if (best[v] == Long.MAX_VALUE) {
+                        reached[reachedCount++] = v;
+                    }
+                    if (total < best[v]) {
+                        best[v] = total;
+                        parent[v] = b;
+                    }
+                }
+            }
+            if (reachedCount == 0) {
+                context.reached(beam[0]);
+                fellBack = true;
+                return new Backtracker().solve(begin);
+            }
+            long[] order = new long[reachedCount];
+            for (int r = 0; r < reachedCount; r++) {
+                order[r] = best[reached[r]] * size + reached[r];
+            }
+            Arrays.sort(order);
+            int kept = Math.min(width, reachedCount);
+            Progression[] nextBeam = new Progression[kept];
+            long[] nextCost = new long[kept];
+            for (int k = 0; k < kept; k++) {
+                int v = (int) (order[k] % size);
+                nextBeam[k] = beam[parent[v]].extend(v);
+                nextCost[k] = best[v];
+            }
+            beam = nextBeam;
+            beamCost = nextCost;
+        }
+        totalCost = beamCost[0];
+        context.reached(beam[0]);
+        return beam[0];
+    }
+
+    /**
+     * @return the furthest progression reached by the last solve
+     */
+    public Progression getFurthestProgression() {
+        return context.getFurthestProgression();
+    }
+
+    /**
+     * @return the cost of the progression found by the last solve, -1 if it was not found by the beam
+     */
+    public long getTotalCost() {
+        return totalCost;
+    }
+
+    /**
+     * @return true if the last solve had to fall back to the exact backtracker
+     */
+    public boolean fellBack() {
+        return fellBack;
+    }
+}
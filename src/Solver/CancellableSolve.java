@@ -0,0 +1,104 @@
+package Solver;
+
+import Music.Progression;
+
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.function.Supplier;
+
+/**
+ * Runs a solve on an executor and completes a future with the result
+ * Cancelling the future stops the solve and interrupts the thread running it, so a
+ * backtracker stops within Backtracker.CHECK_INTERVAL progressions.
+ */
+class CancellableSolve implements Runnable {
+
+    /**
+     * The future for the result of the solve
+     */
+    private final CompletableFuture<Progression> future = new CompletableFuture<>();
+
+    /**
+     * The solve to run
+     */
+    private final Supplier<Progression> solve;
+
+    /**
+     * Tells the solve to stop, run before the thread running it is interrupted
+     */
+    private final Runnable stop;
+
+    /**
+     * The thread running the solve, null if it is not running
+     * Guarded by this
+     */
+    private Thread runner;
+
+    /**
+     * Whether cancel interrupted the runner
+     * Guarded by this
+     */
+    private boolean interrupted;
+
+    /**
+     * Constructor for a solve
+     * @param solve the solve to run
+     * @param stop tells the solve to stop
+     */
+    private CancellableSolve(Supplier<Progression> solve, Runnable stop) {
+        this.solve = solve;
+        this.stop = stop;
+        future.whenComplete((p, e) -> {
+            if (future.isCancelled()) {
+                cancel();
+            }
+        });
+    }
+
+    /**
+     * Starts a solve on an executor
+     * @param solve the solve to run
+     * @param stop tells the solve to stop, such as cancelling the backtracker doing it
+     * @param executor the executor to run the solve on
+     * @return the future for the result of the solve
+     */
+    static CompletableFuture<Progression> start(Supplier<Progression> solve, Runnable stop, Executor executor) {
+        CancellableSolve task = new CancellableSolve(solve, stop);
+        executor.execute(task);
+        return task.future;
+    }
+
+    @Override
+    public void run() {
+        synchronized (this) {
+            if (future.isDone()) {
+                return;
+            }
+            runner = Thread.currentThread();
+        }
+        try {
+            future.complete(solve.get());
+        } catch (Throwable e) {
+            future.completeExceptionally(e);
+        } finally {
+            synchronized (this) {
+                runner = null;
+                if (interrupted) {
+                    // Clears the interrupt from cancel so it does not reach the executor's next task
+                    Thread.interrupted();
+                }
+            }
+        }
+    }
+
+    /**
+     * Stops the solve and interrupts the thread running it
+     */
+    private synchronized void cancel() {
+        stop.run();
+        if (runner != null) {
+            runner.interrupt();
+            interrupted = true;
+        }
+    }
+}
@@ -0,0 +1,56 @@
+package Solver;
+
+import Music.Progression;
+
+import java.util.ArrayList;
+import java.util.Set;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Remembers progressions that could not be finished
+ * A progression is only checked against the chord before it, so whether the rest
+ * of the input can be solved only depends on the chord index and the last voicing.
+ * Every failed subtree only has to be explored once.
+ * Safe to share between threads searching the same input.
+ */
+public class FailureCache {
+
+    /**
+     * Voicing keys of the last chord of failed progressions
+     * The set at index i holds progressions with i chords
+     */
+    private final ArrayList<Set<Long>> failed;
+
+    /**
+     * Constructor for an empty cache
+     * @param length number of chords in the input progression
+     */
+    public FailureCache(int length) {
+        failed = new ArrayList<>(length + 1);
+        for (int i = 0; i <= length; i++) {
+            failed.add(ConcurrentHashMap.newKeySet());
+        }
+    }
+
+    /**
+     * Checks if a progression is already known to fail
+     * @param p the progression to check
+     * @return true if the progression cannot be finished
+     */
+    public boolean contains(Progression p) {
+        if (p.depth() == 0) {
+            return false;
+        }
+        return failed.get(p.depth()).contains(p.getLastChord().getVoicingKey());
+    }
+
+    /**
+     * Records that a progression cannot be finished
+     * @param p the progression that failed
+     */
+    public void add(Progression p) {
+        if (p.depth() > 0) {
+            failed.get(p.depth()).add(p.getLastChord().getVoicingKey());
+        }
+    }
+}
@@ -0,0 +1,110 @@
+package Solver;
+
+import Music.Key;
+import Music.Progression;
+import Music.SolveContext;
+import Music.TransitionTable;
+
+/**
+ * Proves whether a progression can be solved before any search
+ * A forward pass keeps the set of voicings reachable at each chord index as a bitset,
+ * following the valid pairs in the transition tables. A voicing is reachable if some valid
+ * progression ends on it, so the first index whose set is empty is exactly the first chord
+ * that no valid progression can reach, and if no set is empty a solution exists.
+ * Runs in time linear in the progression length and builds no progressions along the way.
+ */
+public class FeasibilityChecker {
+
+    /**
+     * A longest valid progression from the last check, ending right before the problem chord
+     */
+    private Progression furthestProgression;
+
+    /**
+     * The number of distinct voicings reached over all chord indexes in the last check
+     */
+    private int totalVoicingsReached;
+
+    /**
+     * Checks if a progression can be solved
+     * @param begin starting progression
+     * @return index of the first chord with no reachable voicings, -1 if the progression can be solved
+     */
+    public int check(Progression begin) {
+        SolveContext context = begin.getContext();
+        Key key = context.getKey();
+        int first = begin.depth();
+        int count = context.length() - first;
+        totalVoicingsReached = 0;
+        furthestProgression = begin;
+        // parents[i][v] is the voicing at the index before that first reached voicing v, -1 for the first index
+        int[][] parents = new int[count][];
+        long[] reached = new long[0];
+        for (int i = 0; i < count; i++) {
+            String name = context.getChordName(first + i);
+            int size = key.getVoicings(name).size();
+            long[] next = new long[(size + 63) >>> 6];
+            parents[i] = new int[size];
+            if (i == 0) {
+                for (int v : begin.getNextVoicings()) {
+                    next[v >>> 6] |= 1L << v;
+                    parents[i][v] = -1;
+                }
+            } else {
+                TransitionTable table = TransitionTable.of(key, context.getChordName(first + i - 1), name);
+                for (int w = 0; w < reached.length; w++) {
+                    long bits = reached[w];
+                    while (bits != 0) {
+                        int from = (w << 6) + Long.numberOfTrailingZeros(bits);
+                        for (int v : table.successors(from)) {
+                            if ((next[v >>> 6] & (1L << v)) == 0) {
+                                next[v >>> 6] |= 1L << v;
+                                parents[i][v] = from;
+                            }
+                        }
+                        bits &= bits - 1;
+                    }
+                }
+            }
+            int reachedCount = 0;
+            for (long word : next) {
+                reachedCount += Long.bitCount(word);
+            }
+            if (reachedCount == 0) {
+                if (i > 0) {
+                    furthestProgression = Traceback.trace(begin, parents, i - 1, firstVoicing(reached));
+                }
+                return first + i;
+            }
+            totalVoicingsReached += reachedCount;
+            reached = next;
+        }
+        return -1;
+    }
+
+    /**
+     * @param voicings a non-empty set of voicings
+     * @return the lowest voicing in the set
+     */
+    private static int firstVoicing(long[] voicings) {
+        int w = 0;
+        while (voicings[w] == 0) {
+            w++;
+        }
+        return (w << 6) + Long.numberOfTrailingZeros(voicings[w]);
+    }
+
+    /**
+     * @return a longest valid progression from the last check, ending right before the problem chord
+     */
+    public Progression getFurthestProgression() {
+        return furthestProgression;
+    }
+
+    /**
+     * @return the number of distinct voicings reached by the last check
+     */
+    public int getTotalVoicingsReached() {
+        return totalVoicingsReached;
+    }
+}
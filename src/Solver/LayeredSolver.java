@@ -0,0 +1,94 @@
+package Solver;
+
+import Music.Progression;
+import Music.SolveContext;
+
+import java.util.ArrayList;
+import java.util.concurrent.CancellationException;
+
+/**
+ * Layered graph solver for chord progressions
+ * Every rule only compares a chord with the one before it, so each chord index is a
+ * layer of voicings and the valid pairs between layers are the edges.
+ * A forward pass keeps one progression for every voicing reachable at each index,
+ * following the valid pairs in the transition tables,
+ * so a path to the last layer is already built when the pass finishes. Runs in time linear in the progression length.
+ * Stops with a CancellationException at the next layer if its thread is interrupted.
+ */
+public class LayeredSolver {
+
+    /**
+     * The input and furthest progress of the current solve
+     */
+    private SolveContext context;
+
+    /**
+     * The number of distinct voicings reached over all layers
+     */
+    private int totalVoicingsReached;
+
+    /**
+     * The number of valid voicing pairs scanned from the transition tables
+     */
+    private int totalTransitionsScanned;
+
+    /**
+     * Layered solve method
+     * @param begin starting progression
+     * @return a solved progression if it is solvable null otherwise
+     */
+    public Progression solve(Progression begin) {
+        context = begin.getContext();
+        context.reset(begin);
+        totalVoicingsReached = 0;
+        totalTransitionsScanned = 0;
+        ArrayList<Progression> layer = new ArrayList<>();
+        layer.add(begin);
+        for (int i = begin.depth(); i < begin.length(); i++) {
+            if (Thread.currentThread().isInterrupted()) {
+                throw new CancellationException("Solve was interrupted.");
+            }
+            Progression[] reached = new Progression[layer.get(0).getNextVoicingSet().size()];
+            ArrayList<Progression> next = new ArrayList<>();
+            for (Progression from : layer) {
+                for (int voicing : from.getNextVoicings()) {
+                    totalTransitionsScanned++;
+                    if (reached[voicing] == null) {
+                        reached[voicing] = from.extend(voicing);
+                        next.add(reached[voicing]);
+                    }
+                }
+            }
+            if (next.isEmpty()) {
+                context.reached(layer.get(0));
+                return null;
+            }
+            totalVoicingsReached += next.size();
+            layer = next;
+        }
+        Progression solved = layer.get(0);
+        context.reached(solved);
+        return solved;
+    }
+
+    /**
+     * @return the furthest progression reached by the last solve
+     */
+    public Progression getFurthestProgression() {
+        return context.getFurthestProgression();
+    }
+
+    /**
+     * @return the number of distinct voicings reached by the last solve
+     */
+    public int getTotalVoicingsReached() {
+        return totalVoicingsReached;
+    }
+
+    /**
+     * @return the number of valid voicing pairs scanned by the last solve
+     */
+    public int getTotalTransitionsScanned() {
+        return totalTransitionsScanned;
+    }
+}
@@ -0,0 +1,158 @@
+package Solver;
+
+import Music.Key;
+import Music.Progression;
+import Music.SolveContext;
+import Music.TransitionTable;
+import Music.VoicingSet;
+
+import java.util.Arrays;
+
+/**
+ * Finds the valid progression with the best voice leading
+ * Each chord index is a layer of voicings and the valid pairs in the transition tables are
+ * the edges, so the best progression is a shortest path through the layers. A forward pass
+ * keeps the lowest cost of reaching every voicing and the voicing it was reached from,
+ * then the cheapest voicing of the last chord is followed back to the start.
+ * Every valid pair is looked at once, so it runs in time linear in the progression length
+ * and never enumerates whole progressions.
+ */
+public class OptimalSolver {
+
+    /**
+     * Marks a voicing that has not been reached
+     */
+    private static final long UNREACHED = Long.MAX_VALUE;
+
+    /**
+     * How voice leading is scored
+     */
+    private final VoiceLeadingCost cost;
+
+    /**
+     * The input and furthest progress of the current solve
+     */
+    private SolveContext context;
+
+    /**
+     * The cost of the progression found by the last solve, -1 if there was none
+     */
+    private long totalCost;
+
+    /**
+     * Constructor for a solver using the default voice leading cost
+     */
+    public OptimalSolver() {
+        this(new SmoothVoiceLeading());
+    }
+
+    /**
+     * Constructor for a solver with its own voice leading cost
+     * @param cost how voice leading is scored
+     */
+    public OptimalSolver(VoiceLeadingCost cost) {
+        this.cost = cost;
+    }
+
+    /**
+     * Optimal solve method
+     * @param begin starting progression
+     * @return a solved progression with the lowest cost if it is solvable null otherwise
+     */
+    public Progression solve(Progression begin) {
+        context = begin.getContext();
+        context.reset(begin);
+        totalCost = -1;
+        Key key = context.getKey();
+        int first = begin.depth();
+        int count = context.length() - first;
+        if (count <= 0) {
+            totalCost = 0;
+            return begin;
+        }
+        // parents[i][v] is the voicing at the index before on the cheapest way to voicing v
+        int[][] parents = new int[count][];
+        long[] best = null;
+        long[] packed = null;
+        for (int i = 0; i < count; i++) {
+            String name = context.getChordName(first + i);
+            VoicingSet voicings = key.getVoicings(name);
+            long[] nextPacked = new long[voicings.size()];
+            long[] nextBest = new long[voicings.size()];
+            Arrays.fill(nextBest, UNREACHED);
+            parents[i] = new int[voicings.size()];
+            boolean any = false;
+            if (i == 0) {
+                for (int v : begin.getNextVoicings()) {
+                    nextPacked[v] = voicings.get(v).getVoicingKey();
+                    nextBest[v] = cost.voicing(nextPacked[v]);
+                    if (begin.getLastChord() != null) {
+                        nextBest[v] += cost.transition(begin.getLastChord().getVoicingKey(), nextPacked[v]);
+                    }
+                    parents[i][v] = -1;
+                    any = true;
+                }
+            } else {
+                TransitionTable table = TransitionTable.of(key, context.getChordName(first + i - 1), name);
+                for (int u = 0; u < best.length; u++) {
+                    if (best[u] == UNREACHED) {
+                        continue;
+                    }
+                    for (int v : table.successors(u)) {
+                        if (nextBest[v] == UNREACHED) {
+                            nextPacked[v] = voicings.get(v).getVoicingKey();
+                        }
+                        long total = best[u] + cost.transition(packed[u], nextPacked[v]) + cost.voicing(nextPacked[v]);
+                        if (total < nextBest[v]) {
+                            nextBest[v] = total;
+                            parents[i][v] = u;
+                        }
+                        any = true;
+                    }
+                }
+            }
+            if (!any) {
+                context.reached(Traceback.trace(begin, parents, i - 1, cheapest(best)));
+                return null;
+            }
+            best = nextBest;
+            packed = nextPacked;
+        }
+        int last = cheapest(best);
+        totalCost = best[last];
+        Progression solved = Traceback.trace(begin, parents, count - 1, last);
+        context.reached(solved);
+        return solved;
+    }
+
+    /**
+     * @param best the cost of reaching each voicing, null if there are no voicings
+     * @return the voicing that is cheapest to reach, -1 if none are reached
+     */
+    private static int cheapest(long[] best) {
+        int cheapest = -1;
+        if (best == null) {
+            return cheapest;
+        }
+        for (int v = 0; v < best.length; v++) {
+            if (best[v] != UNREACHED && (cheapest < 0 || best[v] < best[cheapest])) {
+                cheapest = v;
+            }
+        }
+        return cheapest;
+    }
+
+    /**
+     * @return the furthest progression reached by the last solve
+     */
+    public Progression getFurthestProgression() {
+        return context.getFurthestProgression();
+    }
+
+    /**
+     * @return the cost of the progression found by the last solve, -1 if there was none
+     */
+    public long getTotalCost() {
+        return totalCost;
+    }
+}
@@ -0,0 +1,191 @@
+package Solver;
+
+import Music.Progression;
+import Music.SolveStatistics;
+import Music.Successors;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.SplittableRandom;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Parallel backtracker for chord progressions
+ * Splits the successors of the first few chords into fork/join tasks so idle
+ * threads can steal them, then searches deeper chords with the iterative backtracker.
+ * The first task to find a solution stops the others, and so does the deadline if there is one.
+ * Each task shuffles with its own random stream split from the seed of the solve, so the streams
+ * are independent, but which task finishes first still depends on the threads.
+ */
+public class ParallelSolver {
+
+    /**
+     * How many chords deep the search is split into separate tasks
+     */
+    public static final int DEFAULT_SPLIT_DEPTH = 3;
+
+    /**
+     * The pool the tasks run on
+     */
+    private final ForkJoinPool pool;
+
+    /**
+     * How many chords deep the search is split into separate tasks
+     */
+    private final int splitDepth;
+
+    /**
+     * Shared backtracker used by every task
+     * Holds the failure cache and the context of the current solve
+     */
+    private final Backtracker backtracker = new Backtracker();
+
+    /**
+     * The first solution found by any task in the current solve
+     */
+    private AtomicReference<Progression> solution;
+
+    /**
+     * Depth of the starting progression of the current solve
+     */
+    private int startDepth;
+
+    /**
+     * Constructor for a solver on the common pool
+     */
+    public ParallelSolver() {
+        this(ForkJoinPool.commonPool(), DEFAULT_SPLIT_DEPTH);
+    }
+
+    /**
+     * Constructor for a solver on a given pool
+     * @param pool the pool to run tasks on
+     * @param splitDepth how many chords deep to split the search
+     */
+    public ParallelSolver(ForkJoinPool pool, int splitDepth) {
+        this.pool = pool;
+        this.splitDepth = splitDepth;
+    }
+
+    /**
+     * Parallel solve method
+     * @param begin starting progression
+     * @return a solved progression if it is solvable null otherwise
+     */
+    public Progression solve(Progression begin) {
+        SolveResult result = solve(begin, null);
+        return result.isSolved() ? result.getProgression() : null;
+    }
+
+    /**
+     * Parallel solve method with a deadline
+     * Stops every task once the time runs out
+     * @param begin starting progression
+     * @param timeout how long the search may run, null for no limit
+     * @return the solution, or the deepest progression if the progression is unsolvable or time ran out
+     */
+    public SolveResult solve(Progression begin, Duration timeout) {
+        backtracker.start(begin, timeout);
+        solution = new AtomicReference<>();
+        if (begin.isGoal()) {
+            solution.set(begin);
+        } else {
+            startDepth = begin.depth();
+            pool.invoke(new SearchTask(begin, begin.getContext().getRandom().split()));
+        }
+        return backtracker.result(solution.get());
+    }
+
+    /**
+     * Solves a progression on an executor
+     * The executor only waits for the tasks, which run on this solver's pool.
+     * Cancelling the future stops every task.
+     * @param begin starting progression
+     * @param executor the executor to run the solve on
+     * @return a future for the solved progression, which completes with null if there is none
+     */
+    public CompletableFuture<Progression> solveAsync(Progression begin, Executor executor) {
+        return CancellableSolve.start(() -> solve(begin), backtracker::cancel, executor);
+    }
+
+    /**
+     * @return the furthest progression reached by the last solve
+     */
+    public Progression getFurthestProgression() {
+        return backtracker.getFurthestProgression();
+    }
+
+    /**
+     * @return the counters for the last solve
+     */
+    public SolveStatistics getStatistics() {
+        return backtracker.getStatistics();
+    }
+
+    /**
+     * Searches below a single visited progression
+     * Forks a task per valid successor near the start of the progression
+     * Tasks are never serialized, so they keep no serialVersionUID
+     */
+    @SuppressWarnings("serial")
+    private class SearchTask extends RecursiveAction {
+
+        /**
+         * The progression to search from
+         */
+        private final Progression progression;
+
+        /**
+         * The random stream of this task
+         */
+        private final SplittableRandom random;
+
+        /**
+         * Constructor for a task
+         * @param progression the progression to search from
+         * @param random the random stream of this task
+         */
+        SearchTask(Progression progression, SplittableRandom random) {
+            this.progression = progression;
+            this.random = random;
+        }
+
+        @Override
+        protected void compute() {
+            if (solution.get() != null || backtracker.isExpired()) {
+                return;
+            }
+            backtracker.checkCancelled();
+            if (progression.depth() - startDepth >= splitDepth) {
+                Progression end = backtracker.search(progression, solution, random);
+                if (end != null) {
+                    solution.compareAndSet(null, end);
+                }
+                return;
+            }
+            ArrayList<SearchTask> tasks = new ArrayList<>();
+            Successors successors = progression.getSuccessors(random);
+            while (successors.hasNext()) {
+                Progression p = successors.next();
+                if (solution.get() != null || backtracker.isExpired()) {
+                    return;
+                }
+                if (backtracker.accept(p)) {
+                    if (p.isGoal()) {
+                        solution.compareAndSet(null, p);
+                        return;
+                    }
+                    tasks.add(new SearchTask(p, random.split()));
+                }
+            }
+            invokeAll(tasks);
+            if (solution.get() == null && !backtracker.isExpired()) {
+                backtracker.fail(progression);
+            }
+        }
+    }
+}
@@ -0,0 +1,195 @@
+package Solver;
+
+import Enums.Strategy;
+import Enums.SuccessorOrder;
+import Music.Progression;
+import Music.SolveContext;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.CompletionException;
+import java.util.concurrent.Executor;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Races several strategies on the same progression and keeps the first to finish
+ * Different progressions suit different strategies: shuffled depth first search is quick when
+ * solutions are common, smooth ordering finds one early when the smoothest voicings work, and
+ * the layered pass never backtracks. Each strategy solves in a fork of the progression's context
+ * on its own thread, and the others are cancelled as soon as one finishes.
+ * Every strategy is exact, so the first to finish decides whether there is a solution.
+ * How often each strategy wins is counted over every portfolio solve, to help pick a default.
+ * A portfolio runs on the executor it is given, which needs a free thread for every strategy
+ * for the race to be fair. Programs solving several progressions at once should give each
+ * portfolio its own executor, or one large enough for all of them.
+ */
+public class PortfolioSolver {
+
+    /**
+     * Thread pool used by portfolios that are not given an executor, such as the one the runner uses
+     * Starts a thread whenever none is idle, so portfolios sharing it never wait on each other.
+     * Its threads are daemons so an idle pool does not keep the program running
+     */
+    private static final ExecutorService DEFAULT_POOL = Executors.newCachedThreadPool(r -> {
+        Thread thread = new Thread(r, "portfolio");
+        thread.setDaemon(true);
+        return thread;
+    });
+
+    /**
+     * How many solves each strategy has won, indexed by ordinal
+     */
+    private static final AtomicLongArray WINS = new AtomicLongArray(Strategy.values().length);
+
+    /**
+     * The executor the strategies run on
+     */
+    private final Executor executor;
+
+    /**
+     * The strategies raced
+     */
+    private final Strategy[] strategies;
+
+    /**
+     * The strategy that finished the last solve first, null if every strategy failed
+     */
+    private Strategy winner;
+
+    /**
+     * How long the winner took in the last solve, in ms
+     */
+    private long time;
+
+    /**
+     * The context the winner solved in
+     */
+    private SolveContext winnerContext;
+
+    /**
+     * Constructor for a portfolio of every strategy on the default pool
+     */
+    public PortfolioSolver() {
+        this(DEFAULT_POOL, Strategy.values());
+    }
+
+    /**
+     * Constructor for a portfolio of some strategies
+     * @param executor the executor to run the strategies on, with a thread free for each strategy
+     * @param strategies the strategies to race
+     */
+    public PortfolioSolver(Executor executor, Strategy... strategies) {
+        if (strategies.length == 0) {
+            throw new IllegalArgumentException("A portfolio needs at least one strategy.");
+        }
+        this.executor = executor;
+        this.strategies = strategies.clone();
+    }
+
+    /**
+     * Portfolio solve method
+     * The progression's context gets the furthest progression of the winner
+     * @param begin starting progression
+     * @return a solved progression if it is solvable null otherwise
+     */
+    public Progression solve(Progression begin) {
+        CompletableFuture<Progression> first = new CompletableFuture<>();
+        List<CompletableFuture<Progression>> running = new ArrayList<>(strategies.length);
+        AtomicReference<Strategy> won = new AtomicReference<>();
+        AtomicInteger left = new AtomicInteger(strategies.length);
+        long start = System.nanoTime();
+        winner = null;
+        for (Strategy strategy : strategies) {
+            SolveContext context = begin.getContext().fork();
+            CompletableFuture<Progression> future = start(strategy, begin.copyTo(context));
+            running.add(future);
+            future.whenComplete((p, e) -> {
+                if (e == null) {
+                    // Claims the win before completing so the caller sees the winner
+                    if (won.compareAndSet(null, strategy)) {
+                        winner = strategy;
+                        winnerContext = context;
+                        first.complete(p);
+                    }
+                } else if (left.decrementAndGet() == 0) {
+                    first.completeExceptionally(e);
+                }
+            });
+        }
+        try {
+            Progression solved = first.join();
+            time = (System.nanoTime() - start) / 1000000;
+            WINS.incrementAndGet(winner.ordinal());
+            begin.getContext().reached(winnerContext.getFurthestProgression());
+            return solved;
+        } catch (CompletionException e) {
+            throw e.getCause() instanceof RuntimeException cause ? cause : e;
+        } finally {
+            for (CompletableFuture<Progression> future : running) {
+                future.cancel(true);
+            }
+        }
+    }
+
+    /**
+     * Starts a strategy on the executor
+     * @param strategy the strategy to run
+     * @param begin starting progression in a context of the strategy's own
+     * @return a future for the solved progression, which completes with null if there is none
+     */
+    private CompletableFuture<Progression> start(Strategy strategy, Progression begin) {
+        if (strategy == Strategy.LAYERED) {
+            return CancellableSolve.start(() -> new LayeredSolver().solve(begin), () -> { }, executor);
+        }
+        begin.getContext().setOrder(strategy == Strategy.SMOOTH ? SuccessorOrder.SMOOTH : SuccessorOrder.RANDOM);
+        return new Backtracker().solveAsync(begin, executor);
+    }
+
+    /**
+     * @return the strategy that finished the last solve first
+     */
+    public Strategy getWinner() {
+        return winner;
+    }
+
+    /**
+     * @return how long the winner of the last solve took in ms
+     */
+    public long getTime() {
+        return time;
+    }
+
+    /**
+     * @return the counters of the winner of the last solve
+     */
+    public String getStatistics() {
+        return winnerContext.getStatistics().toString();
+    }
+
+    /**
+     * @param strategy a strategy
+     * @return how many portfolio solves the strategy has won
+     */
+    public static long getWins(Strategy strategy) {
+        return WINS.get(strategy.ordinal());
+    }
+
+    /**
+     * @return how many portfolio solves each strategy has won, such as "shuffled 3, smooth 1, layered 0"
+     */
+    public static String getWinStatistics() {
+        StringBuilder builder = new StringBuilder();
+        for (Strategy strategy : Strategy.values()) {
+            if (builder.length() > 0) {
+                builder.append(", ");
+            }
+            builder.append(strategy.name().toLowerCase()).append(' ').append(getWins(strategy));
+        }
+        return builder.toString();
+    }
+}
@@ -0,0 +1,154 @@
+package Solver;
+
+import Enums.RestartSchedule;
+import Music.Progression;
+import Music.SolveContext;
+
+import java.util.SplittableRandom;
+
+/**
+ * Backtracker that restarts its search with a new seed after a number of progressions
+ * A randomised search can get stuck under a bad early choice for much longer than a typical
+ * solve takes. Cutting each attempt off and starting again with a new shuffle bounds how long
+ * it stays stuck. The cutoffs follow a schedule that keeps growing, so a progression with no
+ * solution is still proven to have none.
+ * Every attempt shares one failure cache. Only progressions whose successors were all explored
+ * are added to it, so what an attempt learns stays true for the attempts after it.
+ */
+public class RestartSolver {
+
+    /**
+     * The number of progressions the schedule's cutoffs are multiples of, if none is given
+     */
+    public static final long DEFAULT_UNIT = 64;
+
+    /**
+     * How much each cutoff grows by in the geometric schedule
+     */
+    public static final double GEOMETRIC_FACTOR = 1.5;
+
+    /**
+     * How the cutoff grows between attempts
+     */
+    private final RestartSchedule schedule;
+
+    /**
+     * The number of progressions the cutoffs are multiples of
+     */
+    private final long unit;
+
+    /**
+     * The backtracker that runs each attempt
+     */
+    private final Backtracker backtracker = new Backtracker();
+
+    /**
+     * The number of times the last solve restarted
+     */
+    private int restarts;
+
+    /**
+     * The number of progressions visited over every attempt of the last solve
+     */
+    private long totalProgressionsVisited;
+
+    /**
+     * Constructor for a restart solver with the Luby schedule and the default unit
+     */
+    public RestartSolver() {
+        this(RestartSchedule.LUBY, DEFAULT_UNIT);
+    }
+
+    /**
+     * Constructor for a restart solver
+     * @param schedule how the cutoff grows between attempts
+     * @param unit the number of progressions the cutoffs are multiples of
+     */
+    public RestartSolver(RestartSchedule schedule, long unit) {
+        if (unit < 1) {
+            throw new IllegalArgumentException("Restart unit must be at least 1.");
+        }
+        this.schedule = schedule;
+        this.unit = unit;
+    }
+
+    /**
+     * Restart solve method
+     * The first attempt uses the seed of the solve's context, and each restart uses the next
+     * seed drawn from it, so a seed still repeats the whole solve. In smooth order ties are
+     * only shuffled for a seeded solve, so without a seed the attempts differ only by what
+     * the failure cache has learned.
+     * @param begin starting progression
+     * @return a solved progression if it is solvable null otherwise
+     */
+    public Progression solve(Progression begin) {
+        SolveContext context = begin.getContext();
+        long seed = context.getSeed();
+        SplittableRandom seeds = new SplittableRandom(seed);
+        FailureCache failures = new FailureCache(begin.length());
+        restarts = 0;
+        totalProgressionsVisited = 0;
+        try {
+            for (int attempt = 1; ; attempt++) {
+                Progression solved = backtracker.attempt(begin, failures, cutoff(attempt));
+                totalProgressionsVisited += context.getStatistics().getProgressionsVisited();
+                if (!backtracker.isCutOff()) {
+                    return solved;
+                }
+                restarts++;
+                context.reseed(seeds.nextLong());
+            }
+        } finally {
+            context.reseed(seed);
+        }
+    }
+
+    /**
+     * @param attempt the attempt, starting from 1
+     * @return the most progressions the attempt may explore
+     */
+    long cutoff(int attempt) {
+        double length = schedule == RestartSchedule.LUBY ?
+                luby(attempt) : Math.pow(GEOMETRIC_FACTOR, attempt - 1);
+        double cutoff = unit * length;
+        return cutoff >= Long.MAX_VALUE ? Long.MAX_VALUE : (long) cutoff;
+    }
+
+    /**
+     * The Luby sequence 1, 1, 2, 1, 1, 2, 4, 1, 1, 2, 1, 1, 2, 4, 8, ...
+     * @param i position in the sequence, starting from 1
+     * @return the ith term
+     */
+    static long luby(long i) {
+        while (true) {
+            int k = 64 - Long.numberOfLeadingZeros(i);
+            // i is 2^k - 1, the end of a block, which doubles the longest term so far
+            if (i == (1L << k) - 1) {
+                return 1L << (k - 1);
+            }
+            // Otherwise the sequence repeats from the start of the block
+            i -= (1L << (k - 1)) - 1;
+        }
+    }
+
+    /**
+     * @return the furthest progression reached by the last attempt
+     */
+    public Progression getFurthestProgression() {
+        return backtracker.getFurthestProgression();
+    }
+
+    /**
+     * @return the number of times the last solve restarted
+     */
+    public int getRestarts() {
+        return restarts;
+    }
+
+    /**
+     * @return the number of progressions visited over every attempt of the last solve
+     */
+    public long getTotalProgressionsVisited() {
+        return totalProgressionsVisited;
+    }
+}
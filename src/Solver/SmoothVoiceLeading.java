@@ -0,0 +1,64 @@
+package Solver;
+
+import Enums.Voice;
+import Music.Key;
+import Music.Voicing;
+
+/**
+ * The default voice leading cost
+ * Counts every halfstep each voice moves, adds a penalty for each halfstep of a leap
+ * beyond a whole step, and a penalty for each voice sitting near the edge of its range.
+ */
+public class SmoothVoiceLeading implements VoiceLeadingCost {
+
+    /**
+     * The largest move in halfsteps that is not a leap
+     */
+    public static final int STEP = 2;
+
+    /**
+     * Extra cost for each halfstep of a leap beyond a step
+     */
+    public static final int LEAP_PENALTY = 2;
+
+    /**
+     * How many halfsteps from the edge of its range a voice starts to be penalized
+     */
+    public static final int EDGE = 2;
+
+    /**
+     * Extra cost for each halfstep a voice is inside the edge of its range
+     */
+    public static final int EDGE_PENALTY = 3;
+
+    /**
+     * Bit offset of each voice in a packed chord, indexed like Voice
+     */
+    private static final int[] offsets = {Voicing.SOPRANO, Voicing.ALTO, Voicing.TENOR, Voicing.BASS};
+
+    @Override
+    public int voicing(long voicing) {
+        int cost = 0;
+        for (Voice v : Voice.values()) {
+            int pitch = Voicing.pitch(Voicing.voice(voicing, offsets[v.ordinal()]));
+            int fromEdge = Math.min(pitch - Key.getLowRange(v).toInt(), Key.getTopRange(v).toInt() - pitch);
+            if (fromEdge < EDGE) {
+                cost += (EDGE - fromEdge) * EDGE_PENALTY;
+            }
+        }
+        return cost;
+    }
+
+    @Override
+    public int transition(long prev, long next) {
+        int cost = 0;
+        for (int offset : offsets) {
+            int move = Math.abs(Voicing.pitch(Voicing.voice(next, offset)) - Voicing.pitch(Voicing.voice(prev, offset)));
+            cost += move;
+            if (move > STEP) {
+                cost += (move - STEP) * LEAP_PENALTY;
+            }
+        }
+        return cost;
+    }
+}
@@ -0,0 +1,52 @@
+package Solver;
+
+import Enums.SolveStatus;
+import Music.Progression;
+
+/**
+ * The outcome of a solve with a deadline
+ * Holds the solution if one was found, otherwise the deepest valid progression the search reached
+ */
+public final class SolveResult {
+
+    /**
+     * How the solve ended
+     */
+    private final SolveStatus status;
+
+    /**
+     * The solution, or the deepest valid progression if there is no solution
+     */
+    private final Progression progression;
+
+    /**
+     * Constructor for a result
+     * @param status how the solve ended
+     * @param progression the solution, or the deepest valid progression if there is no solution
+     */
+    public SolveResult(SolveStatus status, Progression progression) {
+        this.status = status;
+        this.progression = progression;
+    }
+
+    /**
+     * @return how the solve ended
+     */
+    public SolveStatus getStatus() {
+        return status;
+    }
+
+    /**
+     * @return the solution, or the deepest valid progression if there is no solution
+     */
+    public Progression getProgression() {
+        return progression;
+    }
+
+    /**
+     * @return true if the progression is a full solution
+     */
+    public boolean isSolved() {
+        return status == SolveStatus.SOLVED;
+    }
+}
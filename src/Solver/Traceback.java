@@ -0,0 +1,33 @@
+package Solver;
+
+import Music.Progression;
+
+/**
+ * Rebuilds progressions from the parent voicings kept by a forward pass over the chord indexes
+ */
+final class Traceback {
+
+    private Traceback() {
+    }
+
+    /**
+     * Builds a progression by following the parents of a voicing back to the start
+     * @param begin starting progression
+     * @param parents the voicing each voicing was reached from, by chord index relative to the start
+     * @param last index of the last chord relative to the start, -1 for none
+     * @param voicing the voicing of the last chord
+     * @return the progression ending on the voicing
+     */
+    static Progression trace(Progression begin, int[][] parents, int last, int voicing) {
+        int[] path = new int[last + 1];
+        for (int i = last; i >= 0; i--) {
+            path[i] = voicing;
+            voicing = parents[i][voicing];
+        }
+        Progression p = begin;
+        for (int v : path) {
+            p = p.extend(v);
+        }
+        return p;
+    }
+}
@@ -0,0 +1,23 @@
+package Solver;
+
+/**
+ * Scores how good the voice leading of a progression is
+ * Lower is better. Costs are given on packed chords (see Music.Voicing) so they stay cheap
+ * to compute for every pair of voicings. The cost of a progression is the cost of each of
+ * its voicings plus the cost of each move between neighbouring voicings.
+ */
+public interface VoiceLeadingCost {
+
+    /**
+     * @param voicing a packed chord
+     * @return the cost of using the voicing, never negative
+     */
+    int voicing(long voicing);
+
+    /**
+     * @param prev the previous packed chord
+     * @param next the next packed chord
+     * @return the cost of moving from one voicing to the next, never negative
+     */
+    int transition(long prev, long next);
+}
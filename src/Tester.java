@@ -1,6 +1,53 @@
+import Enums.Accidental;
+import Enums.N;
+import Music.Interval;
+import Music.Key;
+import Music.MusicTheoryException;
 import Music.Note;
+import Music.Progression;
+import Music.TransitionStore;
+import Music.TransitionTable;
+import Music.VoicingSet;
+import Solver.BeamSolver;
+import Solver.Backtracker;
+import Solver.FeasibilityChecker;
+import Solver.LayeredSolver;
+import Solver.OptimalSolver;
+import Solver.ParallelSolver;
+import Solver.PortfolioSolver;
+import Solver.RestartSolver;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
 
 public class Tester {
+
+    /**
+     * Scale of notes the old Note.getInterval walked to count letter steps
+     */
+    private static final List<N> SCALE = List.of(
+            N.A, N.B, N.C, N.D, N.E, N.F, N.G,
+            N.A, N.B, N.C, N.D, N.E, N.F, N.G,
+            N.A, N.B, N.C, N.D, N.E, N.F, N.G);
+
+    /**
+     * Halfsteps from A of each note name, as the old Note.toInt counted them
+     */
+    private static final Map<N, Integer> PITCH = Map.of(
+            N.A, 0, N.B, 2, N.C, 3, N.D, 5, N.E, 7, N.F, 8, N.G, 10);
+
+    /**
+     * Halfsteps each accidental adds, as the old Note.toInt counted them
+     */
+    private static final Map<Accidental, Integer> ACCIDENTAL = Map.of(
+            Accidental.DOUBLE_FLAT, -2, Accidental.FLAT, -1, Accidental.NATURAL, 0,
+            Accidental.SHARP, 1, Accidental.DOUBLE_SHARP, 2);
     public static void main(String[] args) {
         /*
 
@@ -48,10 +95,10 @@ public class Tester {
 
 
      */
-        /*Note n1 = new Note(N.A, 4, Accidental.NATURAL);
-        Note n2 = new Note(N.C, 4, Accidental.SHARP);
-        Note n3 = new Note(N.E, 4, Accidental.NATURAL);
-        Note n4 = new Note(N.G, 4, Accidental.NATURAL);
+        /*Note n1 = Note.of(N.A, 4, Accidental.NATURAL);
+        Note n2 = Note.of(N.C, 4, Accidental.SHARP);
+        Note n3 = Note.of(N.E, 4, Accidental.NATURAL);
+        Note n4 = Note.of(N.G, 4, Accidental.NATURAL);
         System.out.println(n1.toInt());
         System.out.println(n2.toInt());
         System.out.println(n1.compareTo(n2));
@@ -63,41 +110,267 @@ public class Tester {
         System.out.println("Old: " + n1.transposeTo(new Interval("-M6")) + " new: " + n1);
 
         Chord c = new Chord(n1, n2, n3, n4, "V7");
-        System.out.println(c.transposeTo(new Interval("P5")));
+        System.out.println(c.transpose(new Interval("P5")));
         System.out.println(c);
-        n1 = new Note(N.E, 4, Accidental.NATURAL);
+        n1 = Note.of(N.E, 4, Accidental.NATURAL);
         System.out.println(n1.transpose(new Interval("P8")));
 
-        System.out.println(n1.getInterval(new Note(N.A, 5, Accidental.NATURAL)));
+        System.out.println(n1.getInterval(Note.of(N.A, 5, Accidental.NATURAL)));
 
-        Chord chord1 = new Chord(new Note(N.D, 4, Accidental.NATURAL),
-                new Note("A5"),
-                new Note(N.D, 5, Accidental.NATURAL),
-                new Note(N.G, 5, Accidental.NATURAL), "I");
-        Chord chord2 = new Chord(new Note(N.D, 4, Accidental.NATURAL),
-                new Note(N.B, 5, Accidental.NATURAL),
-                new Note(N.D, 5, Accidental.NATURAL),
-                new Note(N.G, 5, Accidental.NATURAL), "I");
+        Chord chord1 = new Chord(Note.of(N.D, 4, Accidental.NATURAL),
+                Note.of("A5"),
+                Note.of(N.D, 5, Accidental.NATURAL),
+                Note.of(N.G, 5, Accidental.NATURAL), "I");
+        Chord chord2 = new Chord(Note.of(N.D, 4, Accidental.NATURAL),
+                Note.of(N.B, 5, Accidental.NATURAL),
+                Note.of(N.D, 5, Accidental.NATURAL),
+                Note.of(N.G, 5, Accidental.NATURAL), "I");
         Progression p = new Progression(new String[]{"I"});
         p.addChord(new Chord(c));
         p.addChord(chord1);
         p.addChord(chord2);
-        p.addChord(c.transposeTo(new Interval("M3")));
+        p.addChord(c.transpose(new Interval("M3")));
         System.out.println(p);
-        Note inflectionTest = new Note("F4", "E4");
-        Note inflector = new Note("E4");
+        Note inflectionTest = Note.of("F4", "E4");
+        Note inflector = Note.of("E4");
         System.out.println(inflectionTest.isProperInflection(inflector));
         Progression p2 = new Progression(new String[]{"I"});
         Chord CM = new Chord("C3", "G3", "E4", "C5", "I");
-        Chord next = Key.getChord("V7");
+        Chord next = Key.of("C4").getChord("V7");
         p2.addChord(CM);
         ArrayList<Chord> test = p2.getIterations(next);
         System.out.println();
         for (Chord c25 : test) {
             System.out.println(c25);
         }*/
-        Note g = new Note("G3");
-        System.out.println(g.getInterval(new Note("F2")));
+        Note g = Note.of("G3");
+        System.out.println(g.getInterval(Note.of("F2")));
+
+        checkIntervals();
+        checkViio64();
+        checkTransitionStore();
+    }
+
+    /**
+     * Compares Note.getInterval with the scale walk it replaced for every pair of notes in the table
+     * The intervals from the table must be equal and share one instance for each value
+     */
+    private static void checkIntervals() {
+        ArrayList<Note> notes = new ArrayList<>();
+        for (N n : N.values()) {
+            for (Accidental a : Accidental.values()) {
+                for (int octave = 0; octave < 10; octave++) {
+                    notes.add(Note.of(n, octave, a));
+                }
+            }
+        }
+        int failures = 0;
+        for (Note from : notes) {
+            for (Note to : notes) {
+                Interval expected = scaleWalkInterval(from, to);
+                Interval actual = from.getInterval(to);
+                if (!actual.equals(expected) || actual.hashCode() != expected.hashCode() ||
+                        actual != Interval.of(expected.getNoteDist(), expected.getHalfstepDist())) {
+                    failures++;
+                }
+            }
+        }
+        System.out.println("Intervals, " + notes.size() * notes.size() + " pairs: " +
+                (failures == 0 ? "passed" : failures + " FAILED"));
+    }
+
+    /**
+     * The interval between two notes as Note.getInterval found it before it used a table
+     * Walks the scale from the lower note name to the higher one counting letter steps
+     * @param from the first note
+     * @param to the second note
+     * @return the interval from the first note to the second
+     */
+    private static Interval scaleWalkInterval(Note from, Note to) {
+        int halfsteps = pitch(to) - pitch(from);
+        int noteDist = 0;
+        if (halfsteps > 0) {
+            int index = SCALE.indexOf(from.getNote());
+            while (SCALE.get(index) != to.getNote()) {
+                noteDist++;
+                index++;
+            }
+            if (noteDist == 0 && from.getOctave() < to.getOctave()) {
+                noteDist += 7;
+            }
+        } else if (halfsteps < 0) {
+            int index = SCALE.indexOf(to.getNote());
+            while (SCALE.get(index) != from.getNote()) {
+                noteDist--;
+                index++;
+            }
+            if (noteDist == 0 && from.getOctave() > to.getOctave()) {
+                noteDist -= 7;
+            }
+        }
+        halfsteps = halfsteps % 12;
+        if (noteDist == -7 && !(halfsteps <= -8)) {
+            halfsteps -= 12;
+        } else if (noteDist == 7 && !(halfsteps >= 8)) {
+            halfsteps += 12;
+        }
+        return new Interval(noteDist, halfsteps);
+    }
+
+    /**
+     * @param n a note
+     * @return halfsteps from A0, counted from the note name, octave and accidental
+     */
+    private static int pitch(Note n) {
+        return PITCH.get(n.getNote()) + n.getOctave() * 12 + ACCIDENTAL.get(n.getAccidental());
+    }
+
+    /**
+     * Solves progressions through viio6/4 with every engine and compares them with the feasibility check
+     * The voicings of viio6/4 were once looked up in the transition tables of viio
+     */
+    private static void checkViio64() {
+        String[][] inputs = {
+                {"C4", "I", "viio6/4", "I6"},
+                {"C4", "IV", "viio6/4", "I6"},
+                {"G3", "I", "viio6/4", "I6"},
+                {"D4", "I", "viio6/4", "I6"}
+        };
+        for (String[] input : inputs) {
+            boolean feasible = new FeasibilityChecker().check(new Progression(input)) < 0;
+            Progression[] solved = {
+                    new Backtracker().solve(new Progression(input)),
+                    new LayeredSolver().solve(new Progression(input)),
+                    new OptimalSolver().solve(new Progression(input)),
+                    new BeamSolver().solve(new Progression(input)),
+                    new RestartSolver().solve(new Progression(input)),
+                    new ParallelSolver().solve(new Progression(input)),
+                    new PortfolioSolver().solve(new Progression(input))
+            };
+            boolean passed = true;
+            for (Progression p : solved) {
+                passed &= (p != null) == feasible && (p == null || p.isValid());
+            }
+            System.out.println("viio6/4 " + String.join(" ", input) + (feasible ? " (solvable)" : " (unsolvable)") +
+                    (passed ? ": passed" : ": FAILED"));
+        }
+    }
 
+    /**
+     * Builds a transition store and checks every pair of chord names against it
+     * Each table read out of the store must allow the same moves, as voicings, as the table
+     * built from the rules by a key that does not read the store
+     * Only keys compiled after the store is installed read from it, which the check asserts
+     */
+    private static void checkTransitionStore() {
+        Path file;
+        try {
+            file = Files.createTempFile("transitions", ".store");
+            TransitionStore.build(file);
+            TransitionStore.install(TransitionStore.load(file));
+            Files.delete(file);
+        } catch (IOException e) {
+            System.out.println("Transition store: could not build, " + e.getMessage());
+            return;
+        }
+        for (String tonic : new String[]{"bB3", "E4"}) {
+            Key key = Key.of(tonic);
+            if (key.getStore() == null) {
+                System.out.println("Transition store " + tonic + ": FAILED, the key was compiled before the store");
+                continue;
+            }
+            Key plain = Key.withoutStore(key.getTonic());
+            int failures = 0;
+            long transitions = 0;
+            for (String prev : Key.getChordNames()) {
+                VoicingSet from;
+                try {
+                    from = key.getVoicings(prev);
+                } catch (MusicTheoryException e) {
+                    // Cannot be written in this key
+                    continue;
+                }
+                VoicingSet plainFrom = plain.getVoicings(prev);
+                Map<Long, Integer> plainIndex = indexByVoicing(plainFrom);
+                if (from != key.getVoicings(key.getChord(prev)) || indexByVoicing(from).size() != plainFrom.size()) {
+                    failures++;
+                }
+                for (String next : Key.getChordNames()) {
+                    VoicingSet to;
+                    try {
+                        to = key.getVoicings(next);
+                    } catch (MusicTheoryException e) {
+                        continue;
+                    }
+                    VoicingSet plainTo = plain.getVoicings(next);
+                    TransitionTable table = TransitionTable.of(key, prev, next);
+                    TransitionTable plainTable = TransitionTable.of(plain, prev, next);
+                    for (int v = 0; v < from.size(); v++) {
+                        if (from.get(v) == null) {
+                            continue;
+                        }
+                        Integer u = plainIndex.get(from.get(v).getVoicingKey());
+                        if (u == null) {
+                            failures++;
+                            continue;
+                        }
+                        long[] stored = voicingsOf(to, table.successors(v));
+                        long[] built = voicingsOf(plainTo, plainTable.successors(u));
+                        if (stored == null || !Arrays.equals(stored, built)) {
+                            failures++;
+                        }
+                        transitions += built.length;
+                    }
+                }
+            }
+            System.out.println("Transition store " + tonic + ", " + transitions + " transitions: " +
+                    (failures == 0 ? "passed" : failures + " FAILED"));
+        }
+        // Whether each progression can be solved, found without a store
+        String[][] inputs = {
+                {"bB3", "VII6", "viio6/4", "vm4/3"},
+                {"E4", "I", "viio6/4", "I6"}
+        };
+        boolean[] solvable = {false, true};
+        for (int i = 0; i < inputs.length; i++) {
+            boolean feasible = new FeasibilityChecker().check(new Progression(inputs[i])) < 0;
+            Progression solved = new Backtracker().solve(new Progression(inputs[i]));
+            boolean passed = feasible == solvable[i] && (solved != null) == solvable[i] &&
+                    (solved == null || solved.isValid());
+            System.out.println("Transition store " + String.join(" ", inputs[i]) +
+                    (solvable[i] ? " (solvable)" : " (unsolvable)") + (passed ? ": passed" : ": FAILED"));
+        }
+        TransitionStore.install(null);
+    }
+
+    /**
+     * @param voicings a set of voicings
+     * @return the index of each voicing in the set by its packed voicing, leaving out voicings the set masks
+     */
+    private static Map<Long, Integer> indexByVoicing(VoicingSet voicings) {
+        Map<Long, Integer> index = new HashMap<>();
+        for (int i = 0; i < voicings.size(); i++) {
+            if (voicings.get(i) != null) {
+                index.put(voicings.get(i).getVoicingKey(), i);
+            }
+        }
+        return index;
+    }
+
+    /**
+     * @param voicings a set of voicings
+     * @param indexes indexes into the set
+     * @return the packed voicing at each index in ascending order, null if an index is not a voicing of the set
+     */
+    private static long[] voicingsOf(VoicingSet voicings, int[] indexes) {
+        long[] packed = new long[indexes.length];
+        for (int i = 0; i < indexes.length; i++) {
+            if (indexes[i] >= voicings.size() || voicings.get(indexes[i]) == null) {
+                return null;
+            }
+            packed[i] = voicings.get(indexes[i]).getVoicingKey();
+        }
+        Arrays.sort(packed);
+        return packed;
     }
 }